@@ -0,0 +1,123 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Deterministic generator of synthetic dictionaries for benchmarks.
+ * Letters are drawn with English frequencies, so the generated words share
+ * prefixes roughly the way real vocabulary does.
+ */
+final class Dictionary {
+
+    /**
+     * Shortest generated word.
+     */
+    static final int MIN_LENGTH = 3;
+
+    /**
+     * Longest generated word.
+     */
+    static final int MAX_LENGTH = 15;
+
+    /**
+     * Relative frequencies of letters 'a'..'z' in English text (per mille).
+     */
+    private static final int[] FREQUENCIES = {
+        82, 15, 28, 43, 127, 22, 20, 61, 70, 2, 8, 40, 24,
+        67, 75, 19, 1, 60, 63, 91, 28, 10, 24, 2, 20, 1
+    };
+
+    /**
+     * Cumulative form of {@code FREQUENCIES} used for sampling.
+     */
+    private static final int[] CUMULATIVE = new int[FREQUENCIES.length];
+
+    static {
+        int sum = 0;
+        for (int i = 0; i < FREQUENCIES.length; ++i) {
+            sum += FREQUENCIES[i];
+            CUMULATIVE[i] = sum;
+        }
+    }
+
+    private Dictionary() {
+    }
+
+    /**
+     * Generates {@code count} random words.
+     * Words are not guaranteed to be distinct.
+     * @param count amount of words to generate
+     * @param seed seed of random generator
+     * @return generated words
+     */
+    static String[] words(int count, long seed) {
+        Random random = new Random(seed);
+        String[] words = new String[count];
+        char[] buffer = new char[MAX_LENGTH];
+        int span = MAX_LENGTH - MIN_LENGTH + 1;
+        for (int i = 0; i < count; ++i) {
+            int length = MIN_LENGTH
+                    + (random.nextInt(span) + random.nextInt(span)) / 2;
+            for (int j = 0; j < length; ++j) {
+                buffer[j] = letter(random);
+            }
+            words[i] = new String(buffer, 0, length);
+        }
+        return words;
+    }
+
+    /**
+     * Picks {@code count} prefixes of given length from {@code words}.
+     * @param words words to cut prefixes from
+     * @param length length of every prefix
+     * @param count amount of prefixes to pick
+     * @param seed seed of random generator
+     * @return picked prefixes
+     */
+    static String[] prefixes(String[] words, int length, int count,
+                             long seed) {
+        Random random = new Random(seed);
+        String[] prefixes = new String[count];
+        int picked = 0;
+        while (picked < count) {
+            String word = words[random.nextInt(words.length)];
+            if (word.length() >= length) {
+                prefixes[picked++] = word.substring(0, length);
+            }
+        }
+        return prefixes;
+    }
+
+    private static char letter(Random random) {
+        int r = random.nextInt(CUMULATIVE[CUMULATIVE.length - 1]);
+        int i = 0;
+        while (CUMULATIVE[i] <= r) {
+            i++;
+        }
+        return (char) ('a' + i);
+    }
+}
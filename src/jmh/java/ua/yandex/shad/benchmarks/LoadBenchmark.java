@@ -0,0 +1,128 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.benchmarks;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ua.yandex.shad.autocomplete.PrefixMatches;
+
+/**
+ * Benchmarks of loading text into {@link PrefixMatches}: regex split of
+ * in-memory lines, streaming tokenizer over a reader and parallel loading
+ * of a mapped file on a fork-join pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx16g"})
+public class LoadBenchmark {
+
+    /**
+     * Amount of words per line of generated text.
+     */
+    private static final int WORDS_PER_LINE = 10;
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    private String[] lines;
+    private String text;
+    private Path file;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        String[] words = Dictionary.words(size, size);
+        lines = new String[(words.length + WORDS_PER_LINE - 1)
+                / WORDS_PER_LINE];
+        StringBuilder all = new StringBuilder();
+        for (int i = 0; i < lines.length; ++i) {
+            StringBuilder line = new StringBuilder();
+            int end = Math.min(words.length, (i + 1) * WORDS_PER_LINE);
+            for (int j = i * WORDS_PER_LINE; j < end; ++j) {
+                line.append(words[j]).append(' ');
+            }
+            lines[i] = line.toString();
+            all.append(lines[i]).append('\n');
+        }
+        text = all.toString();
+        try {
+            file = Files.createTempFile("corpus", ".txt");
+            Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        pool = new ForkJoinPool();
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        pool.shutdown();
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public PrefixMatches loadStrings() {
+        PrefixMatches prefixMatches = new PrefixMatches();
+        prefixMatches.load(lines);
+        return prefixMatches;
+    }
+
+    @Benchmark
+    public PrefixMatches loadReader() throws IOException {
+        PrefixMatches prefixMatches = new PrefixMatches();
+        prefixMatches.load(new StringReader(text));
+        return prefixMatches;
+    }
+
+    @Benchmark
+    public PrefixMatches loadParallel() throws IOException {
+        PrefixMatches prefixMatches = new PrefixMatches();
+        prefixMatches.load(file, pool);
+        return prefixMatches;
+    }
+}
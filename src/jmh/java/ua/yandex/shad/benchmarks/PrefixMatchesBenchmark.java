@@ -0,0 +1,108 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ua.yandex.shad.autocomplete.PrefixMatches;
+
+/**
+ * Benchmarks of {@link PrefixMatches#wordsWithPrefix(String, int)}.
+ * Prefix length selects short (popular, broad subtree), medium and long
+ * (long-tail, narrow subtree) queries; trie selects the backend.
+ * Non-zero cache size puts a result cache of that size in front of the
+ * trie.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx16g"})
+public class PrefixMatchesBenchmark {
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    private int size;
+
+    @Param({"3", "5", "8"})
+    private int prefixLength;
+
+    @Param({"3"})
+    private int k;
+
+    @Param({"RWayTrie", "RadixTrie", "TernarySearchTrie"})
+    private String trie;
+
+    @Param({"0", "4096"})
+    private int cacheSize;
+
+    private PrefixMatches prefixMatches;
+    private String[] prefixes;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        if (cacheSize == 0) {
+            prefixMatches = new PrefixMatches(Tries.create(trie));
+        } else {
+            prefixMatches = new PrefixMatches(Tries.create(trie), cacheSize,
+                    PrefixMatches.Eviction.LRU);
+        }
+        String[] words = Dictionary.words(size, size);
+        prefixMatches.load(words);
+        prefixes = Dictionary.prefixes(words, prefixLength,
+                RWayTrieBenchmark.QUERIES, prefixLength);
+    }
+
+    @Benchmark
+    public void wordsWithPrefix(Blackhole bh) {
+        cursor = (cursor + 1) & (RWayTrieBenchmark.QUERIES - 1);
+        for (String word : prefixMatches.wordsWithPrefix(prefixes[cursor], k)) {
+            bh.consume(word);
+        }
+    }
+
+    @Benchmark
+    public void topK(Blackhole bh) {
+        cursor = (cursor + 1) & (RWayTrieBenchmark.QUERIES - 1);
+        for (String word : prefixMatches.topK(prefixes[cursor], k)) {
+            bh.consume(word);
+        }
+    }
+}
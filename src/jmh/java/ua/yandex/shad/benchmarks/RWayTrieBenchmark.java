@@ -0,0 +1,240 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ua.yandex.shad.collections.Tuple;
+import ua.yandex.shad.tries.DoubleArrayTrie;
+import ua.yandex.shad.tries.RWayTrie;
+
+/**
+ * Benchmarks of basic {@link RWayTrie} operations.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx16g"})
+public class RWayTrieBenchmark {
+
+    /**
+     * Amount of words inserted or deleted per invocation.
+     */
+    static final int BATCH = 1000;
+
+    /**
+     * Amount of distinct queries cycled through in lookup benchmarks.
+     */
+    static final int QUERIES = 1024;
+
+    /**
+     * Trie filled with the generated dictionary.
+     */
+    @State(Scope.Benchmark)
+    public static class Filled {
+
+        @Param({"10000", "100000", "1000000", "10000000"})
+        private int size;
+
+        private RWayTrie trie;
+        private DoubleArrayTrie frozen;
+        private String[] hits;
+        private String[] misses;
+        private Tuple[] batch;
+        private int cursor;
+
+        @Setup(Level.Trial)
+        public void fill() {
+            trie = new RWayTrie();
+            String[] words = Dictionary.words(size, size);
+            for (String word : words) {
+                trie.add(new Tuple(word, word.length()));
+            }
+            hits = new String[QUERIES];
+            for (int i = 0; i < QUERIES; ++i) {
+                hits[i] = words[i % words.length];
+            }
+            misses = Dictionary.words(QUERIES, -size);
+            frozen = trie.freeze();
+            batch = new Tuple[BATCH];
+            String[] fresh = Dictionary.words(BATCH * 2, size + 1);
+            int taken = 0;
+            for (int i = 0; i < fresh.length && taken < BATCH; ++i) {
+                if (!trie.contains(fresh[i])) {
+                    batch[taken++] = new Tuple(fresh[i], fresh[i].length());
+                }
+            }
+            if (taken < BATCH) {
+                throw new IllegalStateException();
+            }
+        }
+
+        String nextHit() {
+            cursor = (cursor + 1) & (QUERIES - 1);
+            return hits[cursor];
+        }
+
+        String nextMiss() {
+            cursor = (cursor + 1) & (QUERIES - 1);
+            return misses[cursor];
+        }
+    }
+
+    /**
+     * Generated dictionary in alphabetical order, for bulk builds.
+     */
+    @State(Scope.Benchmark)
+    public static class Sorted {
+
+        @Param({"100000", "1000000"})
+        private int size;
+
+        private Tuple[] tuples;
+
+        @Setup(Level.Trial)
+        public void sort() {
+            String[] words = Dictionary.words(size, size);
+            Arrays.sort(words);
+            tuples = new Tuple[words.length];
+            for (int i = 0; i < words.length; ++i) {
+                tuples[i] = new Tuple(words[i], words[i].length());
+            }
+        }
+    }
+
+    /**
+     * Removes words inserted by {@link #add} after every invocation.
+     */
+    @State(Scope.Thread)
+    public static class AddBatch {
+
+        @TearDown(Level.Invocation)
+        public void undo(Filled filled) {
+            for (Tuple tuple : filled.batch) {
+                filled.trie.delete(tuple.getTerm());
+            }
+        }
+    }
+
+    /**
+     * Inserts words removed by {@link #delete} before every invocation.
+     */
+    @State(Scope.Thread)
+    public static class DeleteBatch {
+
+        @Setup(Level.Invocation)
+        public void prepare(Filled filled) {
+            for (Tuple tuple : filled.batch) {
+                filled.trie.add(tuple);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public RWayTrie add(Filled filled, AddBatch batch) {
+        for (Tuple tuple : filled.batch) {
+            filled.trie.add(tuple);
+        }
+        return filled.trie;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void delete(Filled filled, DeleteBatch batch, Blackhole bh) {
+        for (Tuple tuple : filled.batch) {
+            bh.consume(filled.trie.delete(tuple.getTerm()));
+        }
+    }
+
+    @Benchmark
+    public boolean containsHit(Filled filled) {
+        return filled.trie.contains(filled.nextHit());
+    }
+
+    @Benchmark
+    public boolean containsMiss(Filled filled) {
+        return filled.trie.contains(filled.nextMiss());
+    }
+
+    @Benchmark
+    public boolean containsHitFrozen(Filled filled) {
+        return filled.frozen.contains(filled.nextHit());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void words(Filled filled, Blackhole bh) {
+        for (String word : filled.trie.words()) {
+            bh.consume(word);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public RWayTrie buildByAdd(Sorted sorted) {
+        RWayTrie trie = new RWayTrie();
+        for (Tuple tuple : sorted.tuples) {
+            trie.add(tuple);
+        }
+        return trie;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public RWayTrie buildFromSorted(Sorted sorted) {
+        return RWayTrie.fromSorted(Arrays.asList(sorted.tuples).iterator());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public RWayTrie buildByAddAll(Sorted sorted) {
+        RWayTrie trie = new RWayTrie();
+        trie.addAll(Arrays.asList(sorted.tuples));
+        return trie;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.benchmarks;
+
+import ua.yandex.shad.tries.RWayTrie;
+import ua.yandex.shad.tries.RadixTrie;
+import ua.yandex.shad.tries.TernarySearchTrie;
+import ua.yandex.shad.tries.Trie;
+
+/**
+ * Creates trie backends by their class name, used as benchmark parameter.
+ */
+final class Tries {
+
+    private Tries() {
+    }
+
+    static Trie create(String name) {
+        switch (name) {
+            case "RWayTrie":
+                return new RWayTrie();
+            case "RadixTrie":
+                return new RadixTrie();
+            case "TernarySearchTrie":
+                return new TernarySearchTrie();
+            default:
+                throw new IllegalArgumentException(name);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.autocomplete;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reader that decodes UTF-8 bytes of a buffer, e.g. of a mapped file,
+ * straight into the caller's array. Malformed input is replaced, like
+ * {@link java.io.InputStreamReader} does. A character that takes two
+ * chars is decoded aside when the caller has room for only one, so every
+ * read before the end of input returns at least one char.
+ */
+final class ByteBufferReader extends Reader {
+
+    /**
+     * Maximal amount of chars of one character.
+     */
+    private static final int MAX_CHARS_PER_CHARACTER = 2;
+
+    private final ByteBuffer bytes;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8
+            .newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CharBuffer spare =
+            CharBuffer.allocate(MAX_CHARS_PER_CHARACTER);
+    private boolean flushed;
+
+    /**
+     * Constructs reader of remaining bytes of {@code bytes}. Position of
+     * the buffer itself is not changed.
+     * @param bytes bytes to decode
+     */
+    ByteBufferReader(ByteBuffer bytes) {
+        this.bytes = bytes.duplicate();
+        spare.flip();
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+        if (!spare.hasRemaining() && !flushed) {
+            CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+            decode(out);
+            int read = out.position() - off;
+            if (read > 0) {
+                return read;
+            }
+            if (!flushed) {
+                spare.clear();
+                decode(spare);
+                spare.flip();
+            }
+        }
+        if (spare.hasRemaining()) {
+            cbuf[off] = spare.get();
+            return 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Decodes as many characters as fit into {@code out}.
+     * @param out buffer to decode to
+     */
+    private void decode(CharBuffer out) {
+        decoder.decode(bytes, out, true);
+        if (!bytes.hasRemaining() && decoder.flush(out).isUnderflow()) {
+            flushed = true;
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.autocomplete;
+
+import ua.yandex.shad.collections.Tuple;
+import ua.yandex.shad.tries.PersistentTrie;
+import ua.yandex.shad.tries.Trie;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * PrefixMatches that can be shared between threads.
+ * Readers never block: they query an immutable {@link PersistentTrie}
+ * published through a volatile reference. Writers are serialized and
+ * build the next version off to the side by path copying, which costs
+ * O(L) per word and shares the rest with the published version; a
+ * finished call replaces the published version at once, and a failed one
+ * is rolled back. So a reader sees either the whole change or nothing of
+ * it, and iterables it holds keep showing the version they were taken
+ * from.
+ */
+public class ConcurrentPrefixMatches extends PrefixMatches {
+
+    /**
+     * Version built by writers, guarded by this object's lock.
+     */
+    private final VersionedTrie master;
+
+    /**
+     * Latest published version.
+     */
+    private volatile PrefixMatches snapshot;
+
+    /**
+     * Construct empty ConcurrentPrefixMatches.
+     */
+    public ConcurrentPrefixMatches() {
+        this(new VersionedTrie());
+    }
+
+    private ConcurrentPrefixMatches(VersionedTrie master) {
+        super(master);
+        this.master = master;
+        this.snapshot = new PrefixMatches(master.current);
+    }
+
+    /**
+     * Gets handle of the latest published version.
+     * Handle never changes and doesn't block writers, so it suits long
+     * iterations, e.g. export of all words; it doesn't support loading
+     * and deleting.
+     * @return read-only PrefixMatches of the version
+     */
+    public PrefixMatches snapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public synchronized int load(String... strings) {
+        PersistentTrie before = master.current;
+        boolean done = false;
+        try {
+            super.load(strings);
+            done = true;
+        } finally {
+            finish(before, done);
+        }
+        return size();
+    }
+
+    @Override
+    public synchronized int loadParallel(String... strings) {
+        PersistentTrie before = master.current;
+        boolean done = false;
+        try {
+            super.loadParallel(strings);
+            done = true;
+        } finally {
+            finish(before, done);
+        }
+        return size();
+    }
+
+    @Override
+    public synchronized int load(Reader reader) throws IOException {
+        PersistentTrie before = master.current;
+        boolean done = false;
+        try {
+            super.load(reader);
+            done = true;
+        } finally {
+            finish(before, done);
+        }
+        return size();
+    }
+
+    @Override
+    public synchronized int load(Path path) throws IOException {
+        PersistentTrie before = master.current;
+        boolean done = false;
+        try {
+            super.load(path);
+            done = true;
+        } finally {
+            finish(before, done);
+        }
+        return size();
+    }
+
+    @Override
+    public synchronized int load(Path path, ForkJoinPool pool)
+            throws IOException {
+        PersistentTrie before = master.current;
+        boolean done = false;
+        try {
+            super.load(path, pool);
+            done = true;
+        } finally {
+            finish(before, done);
+        }
+        return size();
+    }
+
+    @Override
+    public synchronized boolean delete(String word) {
+        boolean deleted = super.delete(word);
+        if (deleted) {
+            publish();
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean contains(String word) {
+        return snapshot.contains(word);
+    }
+
+    @Override
+    public Iterable<String> wordsWithPrefix(String pref, int k) {
+        return snapshot.wordsWithPrefix(pref, k);
+    }
+
+    @Override
+    public Iterable<String> topK(String pref, int k) {
+        return snapshot.topK(pref, k);
+    }
+
+    @Override
+    public int size() {
+        return snapshot.size();
+    }
+
+    /**
+     * Publishes version built by a finished write, or drops it if the
+     * write failed halfway, so that no part of a failed batch is seen.
+     * @param before version built before the write
+     * @param done whether the write has finished
+     */
+    private void finish(PersistentTrie before, boolean done) {
+        if (done) {
+            publish();
+        } else {
+            master.current = before;
+        }
+    }
+
+    /**
+     * Replaces published version with the one built by writers.
+     */
+    private void publish() {
+        snapshot = new PrefixMatches(master.current);
+    }
+
+    /**
+     * Mutable view of the latest {@link PersistentTrie} version that
+     * PrefixMatches writes to.
+     */
+    private static final class VersionedTrie implements Trie {
+        private PersistentTrie current = new PersistentTrie();
+
+        @Override
+        public void add(Tuple tuple) {
+            current = current.with(tuple);
+        }
+
+        @Override
+        public boolean contains(String word) {
+            return current.contains(word);
+        }
+
+        @Override
+        public boolean delete(String word) {
+            PersistentTrie next = current.without(word);
+            boolean deleted = next != current;
+            current = next;
+            return deleted;
+        }
+
+        @Override
+        public Iterable<String> words() {
+            return current.words();
+        }
+
+        @Override
+        public Iterable<String> wordsWithPrefix(String pref) {
+            return current.wordsWithPrefix(pref);
+        }
+
+        @Override
+        public Iterable<String> wordsWithPrefix(String pref, int k) {
+            return current.wordsWithPrefix(pref, k);
+        }
+
+        @Override
+        public Iterable<String> topK(String pref, int k) {
+            return current.topK(pref, k);
+        }
+
+        @Override
+        public int size() {
+            return current.size();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.autocomplete;
+
+import ua.yandex.shad.collections.Tuple;
+import ua.yandex.shad.tries.RWayTrie;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Loads words of a text file on a fork-join pool.
+ * File is split into chunks at whitespace bytes (in UTF-8 they are never
+ * a part of a multi-byte character), every chunk is mapped into memory
+ * and tokenized into its own {@link RWayTrie} by a separate task, and
+ * the tries are merged pairwise as the tasks join.
+ */
+final class ParallelLoader {
+
+    /**
+     * Default length of a chunk in bytes.
+     */
+    static final int DEFAULT_CHUNK_BYTES = 1 << 23;
+
+    /**
+     * Amount of bytes read at once while looking for a chunk boundary.
+     */
+    private static final int PROBE_BYTES = 64;
+
+    /**
+     * Mask that turns a byte into an unsigned value.
+     */
+    private static final int UNSIGNED = 0xFF;
+
+    private final int minLength;
+    private final int chunkBytes;
+
+    /**
+     * Constructs loader.
+     * @param minLength words shorter than this are skipped
+     * @param chunkBytes approximate length of a chunk in bytes
+     */
+    ParallelLoader(int minLength, int chunkBytes) {
+        if (chunkBytes <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.minLength = minLength;
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Loads words of UTF-8 file at {@code path}, each weighted by its
+     * length.
+     * @param path file to read
+     * @param pool pool to run tasks on
+     * @return trie with words of the file
+     * @throws IOException if reading fails
+     */
+    RWayTrie load(Path path, ForkJoinPool pool) throws IOException {
+        List<MappedByteBuffer> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path)) {
+            long size = channel.size();
+            long start = 0;
+            while (start < size) {
+                long end = boundary(channel, start + chunkBytes, size);
+                chunks.add(channel.map(FileChannel.MapMode.READ_ONLY,
+                        start, end - start));
+                start = end;
+            }
+        }
+        if (chunks.isEmpty()) {
+            return new RWayTrie();
+        }
+        try {
+            return pool.invoke(new ChunkTask(chunks, 0, chunks.size()));
+        } catch (LoadException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Finds the first whitespace byte at or after {@code from}.
+     * @param channel file
+     * @param from position to start from
+     * @param size length of file
+     * @return position of whitespace or {@code size} if there is none
+     * @throws IOException if reading fails
+     */
+    private static long boundary(FileChannel channel, long from, long size)
+            throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(PROBE_BYTES);
+        long position = from;
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read < 0) {
+                break;
+            }
+            for (int i = 0; i < read; ++i) {
+                if (Tokenizer.isSpace((char) (probe.get(i) & UNSIGNED))) {
+                    return position + i;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Carries {@link IOException} out of a task.
+     */
+    private static final class LoadException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        LoadException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+
+    /**
+     * Builds trie of chunks {@code from..to-1}.
+     */
+    private final class ChunkTask extends RecursiveTask<RWayTrie> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<MappedByteBuffer> chunks;
+        private final int from;
+        private final int to;
+
+        ChunkTask(List<MappedByteBuffer> chunks, int from, int to) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected RWayTrie compute() {
+            if (to - from == 1) {
+                return tokenize(chunks.get(from));
+            }
+            int middle = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(chunks, from, middle);
+            left.fork();
+            RWayTrie right = new ChunkTask(chunks, middle, to).compute();
+            RWayTrie result = left.join();
+            result.merge(right);
+            return result;
+        }
+
+        private RWayTrie tokenize(ByteBuffer chunk) {
+            RWayTrie trie = new RWayTrie();
+            Tokenizer tokenizer =
+                    new Tokenizer(new ByteBufferReader(chunk), minLength);
+            try {
+                String word = tokenizer.next();
+                while (word != null) {
+                    trie.add(new Tuple(word, word.length()));
+                    word = tokenizer.next();
+                }
+            } catch (IOException e) {
+                throw new LoadException(e);
+            }
+            return trie;
+        }
+    }
+}
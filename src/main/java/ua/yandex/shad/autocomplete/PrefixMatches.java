@@ -24,11 +24,22 @@
 
 package ua.yandex.shad.autocomplete;
 
-import ua.yandex.shad.utils.LimitDecorator;
 import ua.yandex.shad.tries.RWayTrie;
 import ua.yandex.shad.collections.Tuple;
 import ua.yandex.shad.tries.Trie;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
 public class PrefixMatches {
 
     /**
@@ -44,7 +55,59 @@ public class PrefixMatches {
     /**
      * Actual Trie to store data.
      */
-    private Trie trie = new RWayTrie();
+    private Trie trie;
+
+    /**
+     * Cache of {@link #wordsWithPrefix(String, int)} results, null if
+     * caching is off.
+     */
+    private ResultCache cache;
+
+    /**
+     * Order in which cached results are evicted.
+     */
+    public enum Eviction {
+        /**
+         * Least recently used result is evicted first.
+         */
+        LRU,
+
+        /**
+         * Earliest cached result is evicted first.
+         */
+        FIFO
+    }
+
+    /**
+     * Construct PrefixMatches backed by {@link RWayTrie}.
+     */
+    public PrefixMatches() {
+        this(new RWayTrie());
+    }
+
+    /**
+     * Construct PrefixMatches backed by given Trie implementation,
+     * e.g. {@link ua.yandex.shad.tries.RadixTrie}.
+     * @param trie empty trie to store data in
+     */
+    public PrefixMatches(Trie trie) {
+        this.trie = trie;
+    }
+
+    /**
+     * Construct PrefixMatches backed by given Trie implementation, that
+     * caches results of {@link #wordsWithPrefix(String, int)}.
+     * Cached results are dropped only when a word under their prefix is
+     * loaded or deleted.
+     * @param trie empty trie to store data in
+     * @param cacheSize maximal amount of cached results
+     * @param eviction order in which cached results are evicted
+     * @throws IllegalArgumentException if {@code cacheSize} is not positive
+     */
+    public PrefixMatches(Trie trie, int cacheSize, Eviction eviction) {
+        this(trie);
+        this.cache = new ResultCache(cacheSize, eviction);
+    }
 
     /**
      * Loads words from {@code strings} to Trie.
@@ -57,10 +120,120 @@ public class PrefixMatches {
         for (String string : strings) {
             for (String str : string.split("\\s+")) {
                 if (str.length() >= MIN_WORD_LENGTH) {
-                    trie.add(new Tuple(str, str.length()));
+                    add(str);
+                }
+            }
+        }
+        return size();
+    }
+
+    /**
+     * Loads words from {@code strings} to Trie like
+     * {@link #load(String...)} does, but inserts them in parallel if
+     * memory is backed by {@link RWayTrie}.
+     * @param strings input strings
+     * @return amount of words in memory
+     * @see RWayTrie#addAll(java.util.Collection)
+     */
+    public int loadParallel(String... strings) {
+        List<Tuple> tuples = new ArrayList<>();
+        for (String string : strings) {
+            for (String str : string.split("\\s+")) {
+                if (str.length() >= MIN_WORD_LENGTH) {
+                    tuples.add(new Tuple(str, str.length()));
                 }
             }
         }
+        List<String> added = new ArrayList<>();
+        if (cache != null) {
+            for (Tuple tuple : tuples) {
+                if (!trie.contains(tuple.getTerm())) {
+                    added.add(tuple.getTerm());
+                }
+            }
+        }
+        if (trie instanceof RWayTrie) {
+            ((RWayTrie) trie).addAll(tuples);
+        } else {
+            for (Tuple tuple : tuples) {
+                trie.add(tuple);
+            }
+        }
+        if (cache != null) {
+            for (String word : added) {
+                cache.invalidate(word);
+            }
+        }
+        return size();
+    }
+
+    /**
+     * Loads words from {@code reader} to Trie.
+     * Text is streamed and split by whitespaces on the fly, so memory
+     * used doesn't depend on length of the text.
+     * @param reader source of text
+     * @return amount of words in memory
+     * @throws IOException if reading fails
+     */
+    public int load(Reader reader) throws IOException {
+        Tokenizer tokenizer = new Tokenizer(reader, MIN_WORD_LENGTH);
+        String word = tokenizer.next();
+        while (word != null) {
+            add(word);
+            word = tokenizer.next();
+        }
+        return size();
+    }
+
+    /**
+     * Loads words from UTF-8 text file at {@code path} to Trie.
+     * @param path file to read
+     * @return amount of words in memory
+     * @throws IOException if reading fails
+     * @see #load(Reader)
+     */
+    public int load(Path path) throws IOException {
+        try (Reader reader = new InputStreamReader(Files.newInputStream(path),
+                StandardCharsets.UTF_8)) {
+            return load(reader);
+        }
+    }
+
+    /**
+     * Loads words from UTF-8 text file at {@code path} to Trie using all
+     * threads of {@code pool}. File is mapped into memory and split into
+     * chunks at whitespaces; chunks are tokenized into separate tries in
+     * parallel and the tries are merged. If memory is backed by
+     * {@link RWayTrie} the result is merged into it as well, otherwise its
+     * words are added one by one.
+     * @param path file to read
+     * @param pool pool to run loading on
+     * @return amount of words in memory
+     * @throws IOException if reading fails
+     */
+    public int load(Path path, ForkJoinPool pool) throws IOException {
+        RWayTrie loaded = new ParallelLoader(MIN_WORD_LENGTH,
+                ParallelLoader.DEFAULT_CHUNK_BYTES).load(path, pool);
+        List<String> added = new ArrayList<>();
+        if (cache != null) {
+            for (String word : loaded.words()) {
+                if (!trie.contains(word)) {
+                    added.add(word);
+                }
+            }
+        }
+        if (trie instanceof RWayTrie) {
+            ((RWayTrie) trie).merge(loaded);
+        } else {
+            for (String word : loaded.words()) {
+                trie.add(new Tuple(word, word.length()));
+            }
+        }
+        if (cache != null) {
+            for (String word : added) {
+                cache.invalidate(word);
+            }
+        }
         return size();
     }
 
@@ -81,7 +254,11 @@ public class PrefixMatches {
      *         false, otherwise
      */
     public boolean delete(String word) {
-        return trie.delete(word);
+        boolean deleted = trie.delete(word);
+        if (deleted && cache != null) {
+            cache.invalidate(word);
+        }
+        return deleted;
     }
 
     /**
@@ -97,6 +274,8 @@ public class PrefixMatches {
     /**
      * Gets words that matches {@code pref} and limit different lengths
      * with parameter {@code k}.
+     * If caching is on, result is materialized and served from cache
+     * until a word under {@code pref} is loaded or deleted.
      * @param pref actual prefix to match
      * @param k number of different lengths
      * @return instance of Iterable class with words
@@ -106,7 +285,34 @@ public class PrefixMatches {
         if (pref.length() < MIN_WORD_LENGTH) {
             throw new IllegalArgumentException();
         }
-        return new LimitDecorator(trie.wordsWithPrefix(pref), k);
+        if (cache == null) {
+            return trie.wordsWithPrefix(pref, k);
+        }
+        String[] words = cache.get(pref, k);
+        if (words == null) {
+            List<String> found = new ArrayList<>();
+            for (String word : trie.wordsWithPrefix(pref, k)) {
+                found.add(word);
+            }
+            words = found.toArray(new String[found.size()]);
+            cache.put(pref, k, words);
+        }
+        return Collections.unmodifiableList(Arrays.asList(words));
+    }
+
+    /**
+     * Gets {@code k} words that matches {@code pref} with the biggest
+     * weights.
+     * @param pref actual prefix to match
+     * @param k amount of words to get
+     * @return instance of Iterable class with words, heaviest first
+     * @see Iterable
+     */
+    public Iterable<String> topK(String pref, int k) {
+        if (pref.length() < MIN_WORD_LENGTH) {
+            throw new IllegalArgumentException();
+        }
+        return trie.topK(pref, k);
     }
 
     /**
@@ -116,4 +322,42 @@ public class PrefixMatches {
     public int size() {
         return trie.size();
     }
+
+    /**
+     * Gets amount of {@link #wordsWithPrefix(String, int)} calls answered
+     * from cache.
+     * @return count of cache hits, zero if caching is off
+     */
+    public long getCacheHits() {
+        if (cache == null) {
+            return 0;
+        }
+        return cache.getHits();
+    }
+
+    /**
+     * Gets amount of {@link #wordsWithPrefix(String, int)} calls that
+     * were not in cache.
+     * @return count of cache misses, zero if caching is off
+     */
+    public long getCacheMisses() {
+        if (cache == null) {
+            return 0;
+        }
+        return cache.getMisses();
+    }
+
+    /**
+     * Adds {@code word} weighted by its length to Trie and drops cached
+     * results it could change. Adding a word that is already there keeps
+     * its weight, so then nothing is dropped.
+     * @param word word to add
+     */
+    private void add(String word) {
+        boolean added = cache != null && !trie.contains(word);
+        trie.add(new Tuple(word, word.length()));
+        if (added) {
+            cache.invalidate(word);
+        }
+    }
 }
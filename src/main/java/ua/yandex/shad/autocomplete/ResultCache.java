@@ -0,0 +1,211 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.autocomplete;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bounded cache of materialized query results keyed by prefix and
+ * {@code k}.
+ * Entries are kept in a {@link LinkedHashMap} in order of access or
+ * insertion, depending on eviction policy, and the eldest one is evicted
+ * when the cache is full. Cached prefixes are also indexed by themselves,
+ * so a changed word invalidates only entries of its own prefixes: one
+ * lookup per prefix of the word instead of a scan of all entries.
+ */
+final class ResultCache {
+
+    /**
+     * Load factor of maps, the same as default one of HashMap.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * Multiplier of prefix hash in hash of a key.
+     */
+    private static final int HASH_BASE = 31;
+
+    private final int capacity;
+    private final LinkedHashMap<Key, String[]> entries;
+    private final Map<String, Set<Key>> byPrefix = new HashMap<>();
+    private long hits;
+    private long misses;
+
+    /**
+     * Bounds of lengths of cached prefixes. They are widened on put and
+     * reset when the cache gets empty, so they may be loose but always
+     * cover every cached prefix.
+     */
+    private int minPrefixLength = Integer.MAX_VALUE;
+    private int maxPrefixLength = -1;
+
+    /**
+     * Construct empty cache.
+     * @param capacity maximal amount of entries
+     * @param eviction order in which entries are evicted
+     * @throws IllegalArgumentException if {@code capacity} is not positive
+     */
+    ResultCache(int capacity, PrefixMatches.Eviction eviction) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(
+                    "Capacity should be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(capacity, LOAD_FACTOR,
+                eviction == PrefixMatches.Eviction.LRU);
+    }
+
+    /**
+     * Query of a cached result.
+     */
+    private static final class Key {
+        private final String prefix;
+        private final int k;
+
+        Key(String prefix, int k) {
+            this.prefix = prefix;
+            this.k = k;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return k == other.k && prefix.equals(other.prefix);
+        }
+
+        @Override
+        public int hashCode() {
+            return prefix.hashCode() * HASH_BASE + k;
+        }
+    }
+
+    /**
+     * Gets cached result and counts a hit or a miss.
+     * @param prefix prefix of query
+     * @param k number of different lengths
+     * @return words or null if there is no such entry
+     */
+    String[] get(String prefix, int k) {
+        String[] words = entries.get(new Key(prefix, k));
+        if (words == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return words;
+    }
+
+    /**
+     * Caches result of a query, evicting the eldest entry if cache is
+     * full.
+     * @param prefix prefix of query
+     * @param k number of different lengths
+     * @param words result of query
+     */
+    void put(String prefix, int k, String[] words) {
+        Key key = new Key(prefix, k);
+        if (entries.put(key, words) == null) {
+            Set<Key> keys = byPrefix.get(prefix);
+            if (keys == null) {
+                keys = new HashSet<>();
+                byPrefix.put(prefix, keys);
+                minPrefixLength = Math.min(minPrefixLength, prefix.length());
+                maxPrefixLength = Math.max(maxPrefixLength, prefix.length());
+            }
+            keys.add(key);
+        }
+        if (entries.size() > capacity) {
+            Iterator<Key> eldest = entries.keySet().iterator();
+            Key evicted = eldest.next();
+            eldest.remove();
+            Set<Key> keys = byPrefix.get(evicted.prefix);
+            keys.remove(evicted);
+            if (keys.isEmpty()) {
+                removePrefix(evicted.prefix);
+            }
+        }
+    }
+
+    /**
+     * Drops entries of prefixes of {@code word}, as their results may
+     * change when the word is added or deleted. Only prefixes as long as
+     * some cached one are looked up.
+     * @param word changed word
+     */
+    void invalidate(String word) {
+        int last = Math.min(word.length(), maxPrefixLength);
+        for (int length = minPrefixLength; length <= last; ++length) {
+            invalidatePrefix(word.substring(0, length));
+        }
+    }
+
+    private void invalidatePrefix(String prefix) {
+        Set<Key> keys = byPrefix.get(prefix);
+        if (keys != null) {
+            entries.keySet().removeAll(keys);
+            removePrefix(prefix);
+        }
+    }
+
+    private void removePrefix(String prefix) {
+        byPrefix.remove(prefix);
+        if (byPrefix.isEmpty()) {
+            minPrefixLength = Integer.MAX_VALUE;
+            maxPrefixLength = -1;
+        }
+    }
+
+    /**
+     * Gets amount of cached results.
+     * @return count of entries
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets amount of queries answered from cache.
+     * @return count of hits
+     */
+    long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets amount of queries that were not in cache.
+     * @return count of misses
+     */
+    long getMisses() {
+        return misses;
+    }
+}
@@ -0,0 +1,331 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.autocomplete;
+
+import ua.yandex.shad.collections.Tuple;
+import ua.yandex.shad.tries.RWayTrie;
+import ua.yandex.shad.tries.Trie;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * PrefixMatches that can be shared between threads, split into shards.
+ * Every shard is an {@link RWayTrie} with its own read/write lock. Word
+ * goes to the shard chosen by hash of its first {@link #ROUTING_LENGTH}
+ * characters, so all words that match a prefix at least that long live
+ * in one shard. Writes to different shards run in parallel, and a query
+ * locks only the shard of its prefix, only for reading. Queries of
+ * shorter prefixes ask every shard and merge the results.
+ * Results are collected while the shard is locked, so they don't change
+ * when the shard does. {@link #size()} adds up sizes of shards one by
+ * one and is exact only when there are no concurrent writes.
+ */
+public class ShardedPrefixMatches extends PrefixMatches {
+
+    /**
+     * Amount of first characters that choose a shard.
+     */
+    public static final int ROUTING_LENGTH = 2;
+
+    /**
+     * Amount of shards of default constructor.
+     */
+    private static final int DEFAULT_SHARDS = 64;
+
+    /**
+     * Multiplier of character hash.
+     */
+    private static final int HASH_BASE = 31;
+
+    /**
+     * Construct ShardedPrefixMatches with {@value #DEFAULT_SHARDS} shards.
+     */
+    public ShardedPrefixMatches() {
+        this(DEFAULT_SHARDS);
+    }
+
+    /**
+     * Construct ShardedPrefixMatches with given amount of shards.
+     * @param shards amount of shards
+     * @throws IllegalArgumentException if {@code shards} is not positive
+     */
+    public ShardedPrefixMatches(int shards) {
+        super(new ShardedTrie(shards));
+    }
+
+    /**
+     * Trie and the lock that guards it.
+     */
+    private static final class Shard {
+        private final RWayTrie trie = new RWayTrie();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Routes operations of PrefixMatches to locked shards.
+     */
+    static final class ShardedTrie implements Trie {
+        private final Shard[] shards;
+
+        ShardedTrie(int count) {
+            if (count <= 0) {
+                throw new IllegalArgumentException(
+                        "Amount of shards should be positive: " + count);
+            }
+            shards = new Shard[count];
+            for (int i = 0; i < count; ++i) {
+                shards[i] = new Shard();
+            }
+        }
+
+        /**
+         * Chooses shard by first characters of {@code key}.
+         * @param key word or prefix
+         * @return shard that has all words starting with the key
+         */
+        private Shard route(String key) {
+            int hash = 0;
+            int length = Math.min(key.length(), ROUTING_LENGTH);
+            for (int i = 0; i < length; ++i) {
+                hash = hash * HASH_BASE + key.charAt(i);
+            }
+            return shards[(hash & Integer.MAX_VALUE) % shards.length];
+        }
+
+        @Override
+        public void add(Tuple tuple) {
+            Shard shard = route(tuple.getTerm());
+            Lock lock = shard.lock.writeLock();
+            lock.lock();
+            try {
+                shard.trie.add(tuple);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public boolean contains(String word) {
+            Shard shard = route(word);
+            Lock lock = shard.lock.readLock();
+            lock.lock();
+            try {
+                return shard.trie.contains(word);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public boolean delete(String word) {
+            Shard shard = route(word);
+            Lock lock = shard.lock.writeLock();
+            lock.lock();
+            try {
+                return shard.trie.delete(word);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Collects words of every shard, see
+         * {@link #wordsWithPrefix(String, int)}.
+         * @return list of words
+         */
+        @Override
+        public Iterable<String> words() {
+            return wordsWithPrefix("");
+        }
+
+        @Override
+        public Iterable<String> wordsWithPrefix(String pref) {
+            return wordsWithPrefix(pref, Integer.MAX_VALUE);
+        }
+
+        /**
+         * Gets words that match {@code pref} with at most {@code k}
+         * different lengths, in the same order as {@link RWayTrie} does.
+         * Prefix shorter than {@link #ROUTING_LENGTH} is asked of every
+         * shard while it is locked for reading. Shards are locked one by
+         * one, so with concurrent writes result is weakly consistent:
+         * every shard is seen at some moment, but not all of them at the
+         * same one.
+         * @param pref actual prefix to match
+         * @param k number of different lengths
+         * @return list of words
+         */
+        @Override
+        public Iterable<String> wordsWithPrefix(String pref, int k) {
+            if (pref.length() >= ROUTING_LENGTH) {
+                Shard shard = route(pref);
+                Lock lock = shard.lock.readLock();
+                lock.lock();
+                try {
+                    return collect(shard.trie.wordsWithPrefix(pref, k));
+                } finally {
+                    lock.unlock();
+                }
+            }
+            List<String> result = new ArrayList<>();
+            for (Shard shard : shards) {
+                Lock lock = shard.lock.readLock();
+                lock.lock();
+                try {
+                    for (String word : shard.trie.wordsWithPrefix(pref, k)) {
+                        result.add(word);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            Collections.sort(result, new ByLength());
+            return Collections.unmodifiableList(firstLengths(result, k));
+        }
+
+        /**
+         * Gets {@code k} heaviest words that match {@code pref}. For prefix
+         * shorter than {@link #ROUTING_LENGTH} every shard gives its own
+         * {@code k} heaviest words, which are merged by weight.
+         * @param pref actual prefix to match
+         * @param k amount of words to get
+         * @return list of words, heaviest first
+         */
+        @Override
+        public Iterable<String> topK(String pref, int k) {
+            if (pref.length() >= ROUTING_LENGTH) {
+                Shard shard = route(pref);
+                Lock lock = shard.lock.readLock();
+                lock.lock();
+                try {
+                    return collect(shard.trie.topK(pref, k));
+                } finally {
+                    lock.unlock();
+                }
+            }
+            List<Tuple> candidates = new ArrayList<>();
+            for (Shard shard : shards) {
+                Lock lock = shard.lock.readLock();
+                lock.lock();
+                try {
+                    for (String word : shard.trie.topK(pref, k)) {
+                        candidates.add(new Tuple(word,
+                                shard.trie.getWeight(word)));
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            Collections.sort(candidates, new ByWeight());
+            List<String> result = new ArrayList<>();
+            for (int i = 0; i < candidates.size() && i < k; ++i) {
+                result.add(candidates.get(i).getTerm());
+            }
+            return Collections.unmodifiableList(result);
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (Shard shard : shards) {
+                Lock lock = shard.lock.readLock();
+                lock.lock();
+                try {
+                    size += shard.trie.size();
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return size;
+        }
+
+        private static List<String> collect(Iterable<String> words) {
+            List<String> result = new ArrayList<>();
+            for (String word : words) {
+                result.add(word);
+            }
+            return Collections.unmodifiableList(result);
+        }
+
+        /**
+         * Cuts words sorted by length after {@code k} different lengths.
+         * @param words words sorted by length
+         * @param k number of different lengths
+         * @return leading part of {@code words}
+         */
+        private static List<String> firstLengths(List<String> words,
+                                                 int k) {
+            int lengths = 0;
+            int end = 0;
+            while (end < words.size()) {
+                if (end == 0 || words.get(end).length()
+                        != words.get(end - 1).length()) {
+                    if (lengths == k) {
+                        break;
+                    }
+                    lengths++;
+                }
+                end++;
+            }
+            return words.subList(0, end);
+        }
+    }
+
+    /**
+     * Orders words by length and words of equal length alphabetically,
+     * which is the order of breadth-first traversal of a trie.
+     */
+    private static final class ByLength implements Comparator<String> {
+        @Override
+        public int compare(String a, String b) {
+            if (a.length() != b.length()) {
+                return Integer.compare(a.length(), b.length());
+            }
+            return a.compareTo(b);
+        }
+    }
+
+    /**
+     * Orders words by decreasing weight, on equal weight shorter words
+     * and then alphabetically.
+     */
+    private static final class ByWeight implements Comparator<Tuple> {
+        private final ByLength byLength = new ByLength();
+
+        @Override
+        public int compare(Tuple a, Tuple b) {
+            if (a.getWeight() != b.getWeight()) {
+                return Integer.compare(b.getWeight(), a.getWeight());
+            }
+            return byLength.compare(a.getTerm(), b.getTerm());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.autocomplete;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Splits text from a {@link Reader} into words separated by whitespace,
+ * the same way as {@code split("\\s+")} does, but without regular
+ * expressions and without holding the whole text. Characters are read
+ * into one reusable buffer, and a string is created only for a word that
+ * is long enough to be returned.
+ */
+final class Tokenizer {
+
+    /**
+     * Size of the read buffer.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Initial capacity of the word buffer.
+     */
+    private static final int WORD_CAPACITY = 32;
+
+    private final Reader reader;
+    private final int minLength;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private char[] word = new char[WORD_CAPACITY];
+    private int position;
+    private int limit;
+
+    /**
+     * Constructs tokenizer over {@code reader}.
+     * @param reader source of text
+     * @param minLength words shorter than this are skipped
+     */
+    Tokenizer(Reader reader, int minLength) {
+        this.reader = reader;
+        this.minLength = minLength;
+    }
+
+    /**
+     * Reads next word that has at least {@code minLength} characters.
+     * @return next word or null if text is over
+     * @throws IOException if reader fails
+     */
+    String next() throws IOException {
+        while (true) {
+            int length = 0;
+            while (true) {
+                if (position == limit && !refill()) {
+                    break;
+                }
+                char c = buffer[position++];
+                if (isSpace(c)) {
+                    if (length > 0) {
+                        break;
+                    }
+                } else {
+                    if (length == word.length) {
+                        word = Arrays.copyOf(word, length * 2);
+                    }
+                    word[length++] = c;
+                }
+            }
+            if (length == 0) {
+                return null;
+            }
+            if (length >= minLength) {
+                return new String(word, 0, length);
+            }
+        }
+    }
+
+    private boolean refill() throws IOException {
+        int read = reader.read(buffer);
+        while (read == 0) {
+            read = reader.read(buffer);
+        }
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+
+    /**
+     * Checks if {@code c} is whitespace in terms of {@code \s} of regular
+     * expressions.
+     * @param c character to check
+     * @return true,  if yes
+     *         false, otherwise
+     */
+    static boolean isSpace(char c) {
+        switch (c) {
+            case ' ':
+            case '\t':
+            case '\n':
+            case '\u000B':
+            case '\f':
+            case '\r':
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.collections;
+
+import java.util.NoSuchElementException;
+
+public class ChunkedQueue<T> implements Queue<T> {
+
+    /**
+     * Default amount of elements per chunk.
+     */
+    private static final int DEFAULT_CHUNK_SIZE = 256;
+
+    /**
+     * Amount of elements per chunk.
+     */
+    private final int chunkSize;
+
+    /**
+     * Chunk to take elements from.
+     */
+    private Chunk head;
+
+    /**
+     * Position of the first element in {@code head} chunk.
+     */
+    private int headIndex;
+
+    /**
+     * Chunk to put elements to.
+     */
+    private Chunk tail;
+
+    /**
+     * Position of the first free slot in {@code tail} chunk.
+     */
+    private int tailIndex;
+
+    /**
+     * Actual size of queue.
+     */
+    private int size;
+
+    /**
+     * Construct new ChunkedQueue with given chunk size.
+     * Queue holds at most two partially used chunks, all other chunks are
+     * full, so memory follows the amount of elements actually stored.
+     * @param chunkSize amount of elements per chunk
+     * @throws IllegalArgumentException if chunkSize is not positive
+     */
+    public ChunkedQueue(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.chunkSize = chunkSize;
+        head = new Chunk(chunkSize);
+        tail = head;
+    }
+
+    /**
+     * Construct new ChunkedQueue with default chunk size.
+     */
+    public ChunkedQueue() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Nested class to represent a chunk of elements.
+     */
+    private static class Chunk {
+        private final Object[] items;
+        private Chunk next;
+
+        Chunk(int size) {
+            items = new Object[size];
+        }
+    }
+
+    /**
+     * Returns the number of elements in queue.
+     * @return queue size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if queue is empty.
+     * @return true if there are no elements in queue
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds new element to the tail of queue.
+     * New chunk is linked when the tail chunk is full.
+     * @param value value of element to add
+     */
+    public void add(T value) {
+        if (tailIndex == chunkSize) {
+            tail.next = new Chunk(chunkSize);
+            tail = tail.next;
+            tailIndex = 0;
+        }
+        tail.items[tailIndex++] = value;
+        size++;
+    }
+
+    /**
+     * Returns element from the head of queue without removing it.
+     * @return head element
+     * @throws NoSuchElementException if queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T peek() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return (T) head.items[headIndex];
+    }
+
+    /**
+     * Removes element from the head of queue.
+     * Slot of removed element is cleared and a fully consumed chunk is
+     * unlinked, so consumed elements become unreachable right away.
+     * @return removed element
+     * @throws NoSuchElementException if queue is empty
+     */
+    public T poll() {
+        T value = peek();
+        head.items[headIndex++] = null;
+        size--;
+        if (isEmpty()) {
+            headIndex = 0;
+            tailIndex = 0;
+        } else if (headIndex == chunkSize) {
+            head = head.next;
+            headIndex = 0;
+        }
+        return value;
+    }
+
+    /**
+     * Package private method used in Tests.
+     * @return amount of chunks held by queue
+     */
+    int chunks() {
+        int count = 0;
+        for (Chunk chunk = head; chunk != null; chunk = chunk.next) {
+            count++;
+        }
+        return count;
+    }
+}
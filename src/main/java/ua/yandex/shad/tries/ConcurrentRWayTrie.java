@@ -0,0 +1,523 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.tries;
+
+import ua.yandex.shad.collections.Queue;
+import ua.yandex.shad.collections.Tuple;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * R-way trie that can be changed and queried by many threads without
+ * locks.
+ * Child links live in {@link AtomicReferenceArray}s, allocated when a node
+ * gets its first child, and are installed by compare-and-set, so threads
+ * adding words with a common prefix agree on one node per prefix.
+ * Value of a node and the number of its children share one {@code long}
+ * that is changed by compare-and-set as well, so exactly one of
+ * concurrent adds or deletes of the same word changes the size.
+ * Delete unlinks nodes that are left without a word and without children.
+ * Such a node is first marked as pruned in the same {@code long}, which
+ * fails if a word or a child appeared meanwhile, and a pruned node never
+ * gets either of them again: add that runs into it unlinks it and starts
+ * over from the root.
+ * Maximal weights are only raised, so after deletes they are upper
+ * bounds, which keeps {@link #topK(String, int)} correct but may make it
+ * visit more nodes.
+ * Iterables are weakly consistent: they never fail because of concurrent
+ * changes and return words that were present at some moment of the
+ * iteration.
+ */
+public class ConcurrentRWayTrie implements Trie {
+
+    /**
+     * Size of alphabet.
+     */
+    public static final int R = RWayTrie.R;
+
+    /**
+     * Character that has index zero in link array.
+     */
+    public static final char FIRST_CHAR = RWayTrie.FIRST_CHAR;
+
+    /**
+     * Value of node, that has no word.
+     */
+    public static final int DEFAULT_VALUE = RWayTrie.DEFAULT_VALUE;
+
+    private final Node root = new Node();
+    private final AtomicInteger size = new AtomicInteger();
+    private final Traversal<Node> traversal = new NodeTraversal();
+
+    /**
+     * Node of ConcurrentRWayTrie.
+     * Its state keeps value in the high half and amount of children in
+     * the low half. Child is counted before it is installed, and a pruned
+     * node has {@link #PRUNED} children.
+     */
+    static final class Node {
+        private static final AtomicLongFieldUpdater<Node> STATE =
+                AtomicLongFieldUpdater.newUpdater(Node.class, "state");
+        private static final AtomicIntegerFieldUpdater<Node> MAX_WEIGHT =
+                AtomicIntegerFieldUpdater.newUpdater(Node.class,
+                        "maxWeight");
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<Node,
+                AtomicReferenceArray> NEXT =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class,
+                        AtomicReferenceArray.class, "next");
+
+        /**
+         * Amount of children of a pruned node.
+         */
+        private static final int PRUNED = -1;
+
+        /**
+         * Position of value in state.
+         */
+        private static final int VALUE_SHIFT = 32;
+
+        /**
+         * Bits of amount of children in state.
+         */
+        private static final long CHILDREN_MASK = 0xFFFFFFFFL;
+
+        private volatile AtomicReferenceArray<Node> next;
+        private volatile long state = pack(DEFAULT_VALUE, 0);
+        private volatile int maxWeight = DEFAULT_VALUE;
+
+        private static long pack(int value, int children) {
+            return ((long) value << VALUE_SHIFT) | (children & CHILDREN_MASK);
+        }
+
+        private static int valueOf(long state) {
+            return (int) (state >> VALUE_SHIFT);
+        }
+
+        private static int childrenOf(long state) {
+            return (int) state;
+        }
+
+        int getValue() {
+            return valueOf(state);
+        }
+
+        int getMaxWeight() {
+            return maxWeight;
+        }
+
+        boolean isEmpty() {
+            return getValue() == DEFAULT_VALUE;
+        }
+
+        boolean isPruned() {
+            return childrenOf(state) == PRUNED;
+        }
+
+        /**
+         * Gets amount of link slots, for tests.
+         * @return zero if node has never had children, R otherwise
+         */
+        int capacity() {
+            if (next == null) {
+                return 0;
+            }
+            return R;
+        }
+
+        /**
+         * Gets child of character {@code c}.
+         * @param c actual character
+         * @return child node or null
+         */
+        Node getNext(char c) {
+            int i = toIndex(c);
+            AtomicReferenceArray<Node> links = next;
+            if (links == null) {
+                return null;
+            }
+            return links.get(i);
+        }
+
+        /**
+         * Gets child of character {@code c}, installing a new one if there
+         * is none. If another thread installs a child first, its child is
+         * returned. Pruned child is unlinked and replaced.
+         * @param c actual character
+         * @return child node or null if this node is pruned
+         */
+        Node getOrAddNext(char c) {
+            int i = toIndex(c);
+            while (true) {
+                Node child = getNext(c);
+                if (child != null && !child.isPruned()) {
+                    return child;
+                }
+                if (child != null) {
+                    unlink(c, child);
+                } else {
+                    if (!addChildren(1)) {
+                        return null;
+                    }
+                    Node created = new Node();
+                    if (links().compareAndSet(i, null, created)) {
+                        return created;
+                    }
+                    addChildren(-1);
+                }
+            }
+        }
+
+        /**
+         * Removes pruned {@code child} of character {@code c}.
+         * @param c actual character
+         * @param child pruned child
+         * @return true,  if child was unlinked by this call
+         *         false, if it was already unlinked
+         */
+        boolean unlink(char c, Node child) {
+            if (next.compareAndSet(toIndex(c), child, null)) {
+                addChildren(-1);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Marks node as pruned if it has no word and no children.
+         * @return true,  if node was pruned by this call
+         *         false, otherwise
+         */
+        boolean prune() {
+            long current = state;
+            return current == pack(DEFAULT_VALUE, 0)
+                    && STATE.compareAndSet(this, current,
+                    pack(DEFAULT_VALUE, PRUNED));
+        }
+
+        /**
+         * Sets value if node has no word and is not pruned.
+         * @param weight weight of the word
+         * @return true,  if word was set
+         *         false, if node already has a word or is pruned
+         */
+        boolean setValue(int weight) {
+            long current = state;
+            while (valueOf(current) == DEFAULT_VALUE
+                    && childrenOf(current) != PRUNED) {
+                if (STATE.compareAndSet(this, current,
+                        pack(weight, childrenOf(current)))) {
+                    return true;
+                }
+                current = state;
+            }
+            return false;
+        }
+
+        /**
+         * Removes word of the node.
+         * @return true,  if word was removed
+         *         false, if node had no word
+         */
+        boolean clearValue() {
+            long current = state;
+            while (valueOf(current) != DEFAULT_VALUE) {
+                if (STATE.compareAndSet(this, current,
+                        pack(DEFAULT_VALUE, childrenOf(current)))) {
+                    return true;
+                }
+                current = state;
+            }
+            return false;
+        }
+
+        /**
+         * Raises maximal weight of subtree to {@code weight}.
+         * @param weight weight of word below the node
+         */
+        void raiseMaxWeight(int weight) {
+            int current = maxWeight;
+            while (weight > current
+                    && !MAX_WEIGHT.compareAndSet(this, current, weight)) {
+                current = maxWeight;
+            }
+        }
+
+        /**
+         * Changes amount of children unless node is pruned.
+         * @param delta change of amount
+         * @return true,  if amount was changed
+         *         false, if node is pruned
+         */
+        private boolean addChildren(int delta) {
+            long current = state;
+            while (childrenOf(current) != PRUNED) {
+                if (STATE.compareAndSet(this, current, pack(valueOf(current),
+                        childrenOf(current) + delta))) {
+                    return true;
+                }
+                current = state;
+            }
+            return false;
+        }
+
+        /**
+         * Gets link array, allocating it if node has none yet.
+         * @return link array
+         */
+        private AtomicReferenceArray<Node> links() {
+            AtomicReferenceArray<Node> links = next;
+            if (links == null) {
+                NEXT.compareAndSet(this, null,
+                        new AtomicReferenceArray<Node>(R));
+                links = next;
+            }
+            return links;
+        }
+    }
+
+    /**
+     * Converts character {@code c} to index in link array.
+     * @param c actual character
+     * @return desired index
+     * @throws ArrayIndexOutOfBoundsException if {@code c} is not in alphabet
+     */
+    private static int toIndex(char c) {
+        int i = c - FIRST_CHAR;
+        if (i < 0 || i >= R) {
+            throw new ArrayIndexOutOfBoundsException(i);
+        }
+        return i;
+    }
+
+    /**
+     * Adds tuple to Trie. If word is already there, its weight is kept.
+     * Maximal weights on the path are raised before the word is set, so
+     * readers never see a word heavier than the bound above it. If a node
+     * on the path gets pruned meanwhile, add starts over.
+     * @param t tuple to add
+     */
+    @Override
+    public void add(Tuple t) {
+        String key = t.getTerm();
+        int weight = t.getWeight();
+        boolean added = tryAdd(key, weight);
+        while (!added) {
+            added = tryAdd(key, weight);
+        }
+    }
+
+    /**
+     * Checks if Trie contains {@code word}.
+     * @param word actual word to check
+     * @return true,  if yes
+     *         false, otherwise
+     */
+    @Override
+    public boolean contains(String word) {
+        Node node = get(word);
+        return node != null && !node.isEmpty();
+    }
+
+    /**
+     * Deletes word from Trie.
+     * @param word actual word to delete
+     * @return true,  if success
+     *         false, otherwise
+     */
+    @Override
+    public boolean delete(String word) {
+        Node[] path = new Node[word.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < word.length(); ++i) {
+            path[i + 1] = path[i].getNext(word.charAt(i));
+            if (path[i + 1] == null) {
+                return false;
+            }
+        }
+        if (!path[word.length()].clearValue()) {
+            return false;
+        }
+        size.decrementAndGet();
+        int depth = word.length();
+        while (depth > 0 && path[depth].prune()
+                && path[depth - 1].unlink(word.charAt(depth - 1),
+                path[depth])) {
+            depth--;
+        }
+        return true;
+    }
+
+    /**
+     * Gets <b>all</b> words from Trie.
+     * @return instance of Iterable class with desired words
+     */
+    @Override
+    public Iterable<String> words() {
+        return wordsWithPrefix("");
+    }
+
+    /**
+     * Gets <b>only</b> words that match prefix {@code pref}.
+     * @param pref actual prefix to match
+     * @return instance of Iterable class with desired words
+     */
+    @Override
+    public Iterable<String> wordsWithPrefix(String pref) {
+        return traversal.byLength(pref, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets words that match prefix {@code pref} with at most {@code k}
+     * different lengths.
+     * @param pref actual prefix to match
+     * @param k number of different lengths
+     * @return instance of Iterable class with desired words
+     */
+    @Override
+    public Iterable<String> wordsWithPrefix(String pref, int k) {
+        return traversal.byLength(pref, k);
+    }
+
+    /**
+     * Gets {@code k} words with the biggest weights that match {@code pref}.
+     * @param pref actual prefix to match
+     * @param k amount of words to get
+     * @return instance of Iterable class with words, heaviest first
+     */
+    @Override
+    public Iterable<String> topK(String pref, int k) {
+        return traversal.byWeight(pref, k);
+    }
+
+    /**
+     * Gets amount of words in Trie.
+     * @return count of words in Trie
+     */
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Adds word unless the path to it runs into a pruned node.
+     * @param key word to add
+     * @param weight weight of word
+     * @return true,  if word was added or was already there
+     *         false, if add should start over
+     */
+    private boolean tryAdd(String key, int weight) {
+        Node cur = root;
+        cur.raiseMaxWeight(weight);
+        for (int i = 0; i < key.length(); ++i) {
+            cur = cur.getOrAddNext(key.charAt(i));
+            if (cur == null) {
+                return false;
+            }
+            cur.raiseMaxWeight(weight);
+        }
+        if (cur.setValue(weight)) {
+            size.incrementAndGet();
+            return true;
+        }
+        return !cur.isPruned();
+    }
+
+    /**
+     * Gets node reached by {@code key}.
+     * @param key actual key
+     * @return node or null if there is no such node
+     */
+    private Node get(String key) {
+        Node cur = root;
+        for (int i = 0; i < key.length() && cur != null; ++i) {
+            cur = cur.getNext(key.charAt(i));
+        }
+        return cur;
+    }
+
+    /**
+     * Gets root node of Trie.
+     * Needed for testing.
+     * @return root node
+     */
+    Node getRoot() {
+        return root;
+    }
+
+    /**
+     * Describes layout of ConcurrentRWayTrie to shared traversals.
+     * Frame offset is value of the node, read once when the frame is
+     * made, so a word is never reported without its weight even if it is
+     * deleted in between. Every link is read once as well, so a traversal
+     * sees each node either before or after a concurrent change, never in
+     * between.
+     */
+    private class NodeTraversal extends Traversal<Node> {
+
+        @Override
+        Frame<Node> start(String pref) {
+            Node node = get(pref);
+            if (node == null) {
+                return null;
+            }
+            return Frame.start(node, node.getValue(), pref.length());
+        }
+
+        @Override
+        boolean isWord(Frame<Node> frame) {
+            return frame.getOffset() != DEFAULT_VALUE;
+        }
+
+        @Override
+        int weight(Frame<Node> frame) {
+            return frame.getOffset();
+        }
+
+        @Override
+        int maxWeight(Frame<Node> frame) {
+            return frame.getNode().getMaxWeight();
+        }
+
+        @Override
+        void expand(Frame<Node> frame, Queue<Frame<Node>> children) {
+            AtomicReferenceArray<Node> next = frame.getNode().next;
+            if (next == null) {
+                return;
+            }
+            for (int i = 0; i < R; ++i) {
+                Node child = next.get(i);
+                if (child != null) {
+                    children.add(frame.child(child, child.getValue(),
+                            (char) (FIRST_CHAR + i)));
+                }
+            }
+        }
+    }
+}
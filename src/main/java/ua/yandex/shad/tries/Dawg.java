@@ -0,0 +1,555 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.tries;
+
+import ua.yandex.shad.collections.Queue;
+import ua.yandex.shad.collections.Tuple;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable minimal acyclic automaton (DAWG) over sorted words.
+ * Unlike a trie, states with equal sets of suffixes are shared, so common
+ * endings like "-ing" or "-tion" are stored once for the whole dictionary.
+ * Since a state may be reached by many words, weights can't live in
+ * states; instead every state knows how many words lie below it, which
+ * numbers words in alphabetical order, and weights are kept in an array
+ * indexed by that number. Words below any position have consecutive
+ * numbers, so maximal weight below a position is a range query over that
+ * array. Only the read side of {@link Trie} is supported.
+ * @see Builder
+ */
+public class Dawg implements Trie {
+
+    /**
+     * Value that represents that there is no word.
+     */
+    public static final int DEFAULT_VALUE = RWayTrie.DEFAULT_VALUE;
+
+    /**
+     * State of the root.
+     */
+    private static final int ROOT = 0;
+
+    /**
+     * Result of a lookup that fell off the automaton.
+     */
+    private static final int NO_STATE = -1;
+
+    /**
+     * Whether word ends in state.
+     */
+    private final boolean[] finals;
+
+    /**
+     * Amount of words below state, including the one ending in it.
+     */
+    private final int[] counts;
+
+    /**
+     * Edges of state {@code s} are {@code firstEdge[s]..firstEdge[s + 1]-1},
+     * sorted by label.
+     */
+    private final int[] firstEdge;
+    private final char[] labels;
+    private final int[] targets;
+
+    /**
+     * Weights of words in alphabetical order.
+     */
+    private final int[] values;
+
+    /**
+     * Tree of maximums over {@code values}: leaves are at
+     * {@code values.length + i}, node {@code i} covers nodes {@code 2i}
+     * and {@code 2i + 1}.
+     */
+    private final int[] maxTree;
+
+    /**
+     * Enumeration of words in this automaton.
+     */
+    private final Traversal<Void> traversal = new RankTraversal();
+
+    private Dawg(boolean[] finals, int[] counts, int[] firstEdge,
+                 char[] labels, int[] targets, int[] values) {
+        this.finals = finals;
+        this.counts = counts;
+        this.firstEdge = firstEdge;
+        this.labels = labels;
+        this.targets = targets;
+        this.values = values;
+        int n = values.length;
+        maxTree = new int[2 * n];
+        System.arraycopy(values, 0, maxTree, n, n);
+        for (int i = n - 1; i > 0; --i) {
+            maxTree[i] = Math.max(maxTree[2 * i], maxTree[2 * i + 1]);
+        }
+    }
+
+    /**
+     * Adding is not supported by automaton, use {@link Builder}.
+     * @param t tuple to add
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void add(Tuple t) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Checks if automaton contains {@code word}.
+     * @param word actual word to check
+     * @return true,  if yes
+     *         false, otherwise
+     */
+    @Override
+    public boolean contains(String word) {
+        int state = ROOT;
+        for (int i = 0; i < word.length() && state != NO_STATE; ++i) {
+            state = next(state, word.charAt(i));
+        }
+        return state != NO_STATE && finals[state];
+    }
+
+    /**
+     * Deleting is not supported by automaton.
+     * @param word actual word to delete
+     * @return never returns
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean delete(String word) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Gets <b>all</b> words from automaton.
+     * @return instance of Iterable class with desired words
+     * @see Iterable
+     */
+    @Override
+    public Iterable<String> words() {
+        return wordsWithPrefix("");
+    }
+
+    /**
+     * Gets <b>only</b> words that match prefix {@code pref}.
+     * @param pref actual prefix to match
+     * @return instance of Iterable class with desired words
+     */
+    @Override
+    public Iterable<String> wordsWithPrefix(String pref) {
+        return traversal.byLength(pref, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets words that match prefix {@code pref} with at most {@code k}
+     * different lengths.
+     * @param pref actual prefix to match
+     * @param k number of different lengths
+     * @return instance of Iterable class with desired words
+     */
+    @Override
+    public Iterable<String> wordsWithPrefix(String pref, int k) {
+        return traversal.byLength(pref, k);
+    }
+
+    /**
+     * Gets {@code k} words with the biggest weights that match {@code pref}.
+     * @param pref actual prefix to match
+     * @param k amount of words to get
+     * @return instance of Iterable class with words in order of decreasing
+     *         weight
+     */
+    @Override
+    public Iterable<String> topK(String pref, int k) {
+        return traversal.byWeight(pref, k);
+    }
+
+    /**
+     * Gets amount of words in automaton.
+     * @return count of words
+     */
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Gets amount of states, for tests.
+     * @return count of states
+     */
+    int stateCount() {
+        return finals.length;
+    }
+
+    /**
+     * Gets amount of edges, for tests.
+     * @return count of edges
+     */
+    int edgeCount() {
+        return labels.length;
+    }
+
+    /**
+     * Follows edge labeled {@code c} from {@code state}.
+     * @param state actual state
+     * @param c label of edge
+     * @return target state or {@link #NO_STATE}
+     */
+    private int next(int state, char c) {
+        int i = Arrays.binarySearch(labels, firstEdge[state],
+                firstEdge[state + 1], c);
+        if (i < 0) {
+            return NO_STATE;
+        }
+        return targets[i];
+    }
+
+    /**
+     * Gets the biggest weight of words numbered {@code from..to-1}.
+     * @param from number of the first word
+     * @param to number after the last word
+     * @return maximal weight or {@link #DEFAULT_VALUE} if range is empty
+     */
+    private int maxWeight(int from, int to) {
+        int result = DEFAULT_VALUE;
+        int l = from + values.length;
+        int r = to + values.length;
+        while (l < r) {
+            if ((l & 1) == 1) {
+                result = Math.max(result, maxTree[l]);
+                l++;
+            }
+            if ((r & 1) == 1) {
+                r--;
+                result = Math.max(result, maxTree[r]);
+            }
+            l >>= 1;
+            r >>= 1;
+        }
+        return result;
+    }
+
+    /**
+     * Describes layout of Dawg to shared traversals.
+     * States are not objects, so frames have no node: frame state is the
+     * state and frame offset is the number of the first word below the
+     * position, which is the number of the word ending at the position if
+     * there is one.
+     */
+    private class RankTraversal extends Traversal<Void> {
+
+        @Override
+        Frame<Void> start(String pref) {
+            int state = ROOT;
+            int rank = 0;
+            for (int i = 0; i < pref.length(); ++i) {
+                char c = pref.charAt(i);
+                if (finals[state]) {
+                    rank++;
+                }
+                int e = firstEdge[state];
+                while (e < firstEdge[state + 1] && labels[e] < c) {
+                    rank += counts[targets[e]];
+                    e++;
+                }
+                if (e == firstEdge[state + 1] || labels[e] != c) {
+                    return null;
+                }
+                state = targets[e];
+            }
+            return Frame.start(null, state, rank, pref.length());
+        }
+
+        @Override
+        boolean isWord(Frame<Void> frame) {
+            return finals[frame.getState()];
+        }
+
+        @Override
+        int weight(Frame<Void> frame) {
+            return values[frame.getOffset()];
+        }
+
+        @Override
+        int maxWeight(Frame<Void> frame) {
+            int rank = frame.getOffset();
+            return Dawg.this.maxWeight(rank,
+                    rank + counts[frame.getState()]);
+        }
+
+        @Override
+        void expand(Frame<Void> frame, Queue<Frame<Void>> children) {
+            int state = frame.getState();
+            int rank = frame.getOffset();
+            if (finals[state]) {
+                rank++;
+            }
+            for (int e = firstEdge[state]; e < firstEdge[state + 1]; ++e) {
+                children.add(frame.child(null, targets[e], rank,
+                        labels[e]));
+                rank += counts[targets[e]];
+            }
+        }
+    }
+
+    /**
+     * Incremental construction of minimal automaton from words in
+     * alphabetical order (J. Daciuk et al., 2000).
+     * Only the path of the last added word may still change. When next
+     * word diverges from it, states below the divergence point are final
+     * and each of them is either replaced by an equal state from the
+     * register or registered itself, so the automaton is minimal at any
+     * moment and the whole trie never exists in memory.
+     */
+    public static class Builder {
+
+        /**
+         * Initial capacity of array with weights.
+         */
+        private static final int INITIAL_CAPACITY = 16;
+
+        /**
+         * Minimized states, each equal to itself.
+         */
+        private final Map<State, State> register = new HashMap<>();
+
+        /**
+         * States along the last added word, {@code path.get(i)} is reached
+         * by its first {@code i} characters.
+         */
+        private final List<State> path = new ArrayList<>();
+
+        private int[] values = new int[INITIAL_CAPACITY];
+        private int size;
+        private String previous;
+        private boolean built;
+
+        /**
+         * Constructs builder of empty automaton.
+         */
+        public Builder() {
+            path.add(new State());
+        }
+
+        /**
+         * Adds word from {@code tuple}.
+         * @param tuple word and it's weight to add
+         * @return this builder
+         * @throws IllegalArgumentException if word is not greater than
+         *         previous one
+         * @throws IllegalStateException if automaton is already built
+         */
+        public Builder add(Tuple tuple) {
+            if (built) {
+                throw new IllegalStateException();
+            }
+            String word = tuple.getTerm();
+            int common = 0;
+            if (previous != null) {
+                if (word.compareTo(previous) <= 0) {
+                    throw new IllegalArgumentException();
+                }
+                int length = Math.min(word.length(), previous.length());
+                while (common < length
+                        && word.charAt(common) == previous.charAt(common)) {
+                    common++;
+                }
+            }
+            minimize(common);
+            State state = path.get(common);
+            for (int i = common; i < word.length(); ++i) {
+                State next = new State();
+                state.addEdge(word.charAt(i), next);
+                path.add(next);
+                state = next;
+            }
+            state.terminal = true;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = tuple.getWeight();
+            previous = word;
+            return this;
+        }
+
+        /**
+         * Minimizes the rest and lays automaton out in arrays.
+         * @return built automaton
+         * @throws IllegalStateException if automaton is already built
+         */
+        public Dawg build() {
+            if (built) {
+                throw new IllegalStateException();
+            }
+            built = true;
+            minimize(0);
+            State root = path.get(0);
+            root.freeze();
+
+            List<State> order = new ArrayList<>();
+            root.id = ROOT;
+            order.add(root);
+            int edges = 0;
+            for (int i = 0; i < order.size(); ++i) {
+                State state = order.get(i);
+                for (int e = 0; e < state.degree; ++e) {
+                    State target = state.targets[e];
+                    if (target.id == NO_STATE) {
+                        target.id = order.size();
+                        order.add(target);
+                    }
+                }
+                edges += state.degree;
+            }
+
+            int states = order.size();
+            boolean[] finals = new boolean[states];
+            int[] counts = new int[states];
+            int[] firstEdge = new int[states + 1];
+            char[] labels = new char[edges];
+            int[] targets = new int[edges];
+            int edge = 0;
+            for (int i = 0; i < states; ++i) {
+                State state = order.get(i);
+                finals[i] = state.terminal;
+                counts[i] = state.count;
+                firstEdge[i] = edge;
+                for (int e = 0; e < state.degree; ++e) {
+                    labels[edge] = state.labels[e];
+                    targets[edge] = state.targets[e].id;
+                    edge++;
+                }
+            }
+            firstEdge[states] = edge;
+            register.clear();
+            path.clear();
+            return new Dawg(finals, counts, firstEdge, labels, targets,
+                    Arrays.copyOf(values, size));
+        }
+
+        /**
+         * Replaces or registers states of the last word deeper than
+         * {@code depth}, deepest first.
+         * @param depth length of the part of the path that stays
+         */
+        private void minimize(int depth) {
+            for (int i = path.size() - 1; i > depth; --i) {
+                State state = path.remove(i);
+                state.freeze();
+                State same = register.get(state);
+                if (same == null) {
+                    register.put(state, state);
+                } else {
+                    path.get(i - 1).replaceLastTarget(same);
+                }
+            }
+        }
+    }
+
+    /**
+     * State of automaton under construction. Two frozen states are equal
+     * if both are final or not and have the same labels leading to the
+     * same (registered) targets.
+     */
+    private static final class State {
+        private static final char[] NO_LABELS = {};
+        private static final State[] NO_TARGETS = {};
+
+        private char[] labels = NO_LABELS;
+        private State[] targets = NO_TARGETS;
+        private int degree;
+        private boolean terminal;
+        private int count;
+        private int hash;
+        private int id = NO_STATE;
+
+        void addEdge(char c, State target) {
+            if (degree == labels.length) {
+                int capacity = Math.max(2, degree * 2);
+                labels = Arrays.copyOf(labels, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+            }
+            labels[degree] = c;
+            targets[degree] = target;
+            degree++;
+        }
+
+        void replaceLastTarget(State target) {
+            targets[degree - 1] = target;
+        }
+
+        /**
+         * Trims arrays and computes amount of words and hash once edges
+         * don't change anymore.
+         */
+        void freeze() {
+            labels = Arrays.copyOf(labels, degree);
+            targets = Arrays.copyOf(targets, degree);
+            final int prime = 31;
+            if (terminal) {
+                count = 1;
+                hash = 1;
+            }
+            for (int e = 0; e < degree; ++e) {
+                count += targets[e].count;
+                hash = prime * hash + labels[e];
+                hash = prime * hash + System.identityHashCode(targets[e]);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof State)) {
+                return false;
+            }
+            State state = (State) o;
+            if (terminal != state.terminal || degree != state.degree) {
+                return false;
+            }
+            for (int e = 0; e < degree; ++e) {
+                if (labels[e] != state.labels[e]
+                        || targets[e] != state.targets[e]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
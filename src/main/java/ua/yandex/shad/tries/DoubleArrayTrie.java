@@ -0,0 +1,426 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.tries;
+
+import ua.yandex.shad.collections.ChunkedQueue;
+import ua.yandex.shad.collections.Queue;
+import ua.yandex.shad.collections.Tuple;
+
+import java.util.Arrays;
+
+/**
+ * Immutable double-array trie compiled from {@link RWayTrie}.
+ * Node (state) {@code s} has a link for character {@code c} to state
+ * {@code t = base[s] + code(c)} if {@code check[t] == s}, so a lookup is
+ * a couple of array reads per character and there are no node objects at
+ * all. Values, subtree maximal weights and bitmaps of children are kept in
+ * parallel arrays indexed by state. Only the read side of {@link Trie} is
+ * supported.
+ * @see RWayTrie#freeze()
+ */
+public class DoubleArrayTrie implements Trie {
+
+    /**
+     * Value that represents that state don't contains anything.
+     */
+    public static final int DEFAULT_VALUE = RWayTrie.DEFAULT_VALUE;
+
+    /**
+     * State of the root.
+     */
+    private static final int ROOT = 1;
+
+    /**
+     * Check of a slot taken by the root, never equal to a parent state.
+     */
+    private static final int ROOT_CHECK = -1;
+
+    private final int[] base;
+    private final int[] check;
+    private final int[] values;
+    private final int[] maxWeights;
+    private final int[] masks;
+
+    /**
+     * Amount of words stored in trie.
+     */
+    private final int size;
+
+    /**
+     * Enumeration of words in this trie.
+     */
+    private final Traversal<Void> traversal = new StateTraversal();
+
+    /**
+     * Compiles trie from nodes of {@link RWayTrie}.
+     * @param root root of source trie
+     * @param size amount of words in source trie
+     */
+    DoubleArrayTrie(RWayTrie.Node root, int size) {
+        Builder builder = new Builder(root);
+        this.size = size;
+        base = Arrays.copyOf(builder.base, builder.used);
+        check = Arrays.copyOf(builder.check, builder.used);
+        values = Arrays.copyOf(builder.values, builder.used);
+        maxWeights = Arrays.copyOf(builder.maxWeights, builder.used);
+        masks = Arrays.copyOf(builder.masks, builder.used);
+    }
+
+    /**
+     * Adding is not supported by frozen trie.
+     * @param t tuple to add
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void add(Tuple t) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Checks if Trie contains {@code word}.
+     * @param word actual word to check
+     * @return true,  if yes
+     *         false, otherwise
+     */
+    @Override
+    public boolean contains(String word) {
+        int state = find(word);
+        return state != 0 && values[state] != DEFAULT_VALUE;
+    }
+
+    /**
+     * Deleting is not supported by frozen trie.
+     * @param word actual word to delete
+     * @return never returns
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean delete(String word) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Gets <b>all</b> words from Trie.
+     * @return instance of Iterable class with desired words
+     * @see Iterable
+     */
+    @Override
+    public Iterable<String> words() {
+        return wordsWithPrefix("");
+    }
+
+    /**
+     * Gets <b>only</b> words that match prefix {@code pref}.
+     * @param pref actual prefix to match
+     * @return instance of Iterable class with desired words
+     */
+    @Override
+    public Iterable<String> wordsWithPrefix(String pref) {
+        return traversal.byLength(pref, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets words that match prefix {@code pref} with at most {@code k}
+     * different lengths.
+     * @param pref actual prefix to match
+     * @param k number of different lengths
+     * @return instance of Iterable class with desired words
+     */
+    @Override
+    public Iterable<String> wordsWithPrefix(String pref, int k) {
+        return traversal.byLength(pref, k);
+    }
+
+    /**
+     * Gets {@code k} words with the biggest weights that match {@code pref}.
+     * @param pref actual prefix to match
+     * @param k amount of words to get
+     * @return instance of Iterable class with words in order of decreasing
+     *         weight
+     */
+    @Override
+    public Iterable<String> topK(String pref, int k) {
+        return traversal.byWeight(pref, k);
+    }
+
+    /**
+     * Gets amount of Trie.
+     * @return count of words in Trie
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Describes layout of DoubleArrayTrie to shared traversals.
+     * There are no node objects, frame offset is the state.
+     */
+    private class StateTraversal extends Traversal<Void> {
+
+        @Override
+        Frame<Void> start(String pref) {
+            int state = find(pref);
+            if (state == 0) {
+                return null;
+            }
+            return Frame.start(null, state, pref.length());
+        }
+
+        @Override
+        boolean isWord(Frame<Void> frame) {
+            return values[frame.getOffset()] != DEFAULT_VALUE;
+        }
+
+        @Override
+        int weight(Frame<Void> frame) {
+            return values[frame.getOffset()];
+        }
+
+        @Override
+        int maxWeight(Frame<Void> frame) {
+            return maxWeights[frame.getOffset()];
+        }
+
+        @Override
+        void expand(Frame<Void> frame, Queue<Frame<Void>> children) {
+            int state = frame.getOffset();
+            int bits = masks[state];
+            while (bits != 0) {
+                int i = Integer.numberOfTrailingZeros(bits);
+                children.add(frame.child(null, base[state] + i + 1,
+                        (char) (RWayTrie.FIRST_CHAR + i)));
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    /**
+     * Follows links of {@code key} from the root.
+     * @param key string to match
+     * @return reached state or 0 if there is no such path
+     */
+    private int find(String key) {
+        int state = ROOT;
+        for (int i = 0; i < key.length(); ++i) {
+            int code = key.charAt(i) - RWayTrie.FIRST_CHAR + 1;
+            if (code < 1 || code > RWayTrie.R) {
+                return 0;
+            }
+            int next = base[state] + code;
+            if (next >= check.length || check[next] != state) {
+                return 0;
+            }
+            state = next;
+        }
+        return state;
+    }
+
+    /**
+     * Places nodes of {@link RWayTrie} into arrays in breadth-first order.
+     * Free slots are kept in a doubly linked list threaded through two
+     * extra arrays, so search of a base skips dense regions instead of
+     * scanning them slot by slot.
+     */
+    private static class Builder {
+
+        /**
+         * Initial length of arrays.
+         */
+        private static final int INITIAL_CAPACITY = 64;
+
+        /**
+         * Slot 0 is never a state; it is the head of the free list.
+         */
+        private static final int FREE_HEAD = 0;
+
+        /**
+         * Link of a slot that is not in the free list.
+         */
+        private static final int UNLINKED = -1;
+
+        /**
+         * Amount of failed attempts to align a base with a free slot after
+         * which the slot stops being a candidate. It still may be taken by
+         * a base found through another slot.
+         */
+        private static final int MAX_MISSES = 8;
+
+        private int[] base = new int[INITIAL_CAPACITY];
+        private int[] check = new int[INITIAL_CAPACITY];
+        private int[] values = new int[INITIAL_CAPACITY];
+        private int[] maxWeights = new int[INITIAL_CAPACITY];
+        private int[] masks = new int[INITIAL_CAPACITY];
+        private int[] nextFree = new int[INITIAL_CAPACITY];
+        private int[] prevFree = new int[INITIAL_CAPACITY];
+        private int[] misses = new int[INITIAL_CAPACITY];
+
+        /**
+         * Amount of slots in use, i.e. one more than the biggest state.
+         */
+        private int used = ROOT + 1;
+
+        Builder(RWayTrie.Node root) {
+            linkFree(ROOT + 1, INITIAL_CAPACITY);
+            check[ROOT] = ROOT_CHECK;
+            values[ROOT] = root.getValue();
+            maxWeights[ROOT] = root.getMaxWeight();
+            Queue<Pending> queue = new ChunkedQueue<>();
+            queue.add(new Pending(root, ROOT));
+            while (!queue.isEmpty()) {
+                Pending pending = queue.poll();
+                placeChildren(pending.node, pending.state, queue);
+            }
+        }
+
+        /**
+         * Finds base for children of {@code node}, takes their slots and
+         * queues them.
+         * @param node node of source trie
+         * @param state state of the node
+         * @param queue queue of nodes waiting for their children
+         */
+        private void placeChildren(RWayTrie.Node node, int state,
+                                   Queue<Pending> queue) {
+            int mask = node.getMask();
+            masks[state] = mask;
+            if (mask == 0) {
+                return;
+            }
+            int b = findBase(mask);
+            base[state] = b;
+            for (int bits = mask; bits != 0; bits &= bits - 1) {
+                int i = Integer.numberOfTrailingZeros(bits);
+                int child = b + i + 1;
+                RWayTrie.Node next =
+                        node.getNext((char) (RWayTrie.FIRST_CHAR + i));
+                take(child);
+                check[child] = state;
+                values[child] = next.getValue();
+                maxWeights[child] = next.getMaxWeight();
+                used = Math.max(used, child + 1);
+                queue.add(new Pending(next, child));
+            }
+        }
+
+        /**
+         * Finds base such that slots of all children in {@code mask} are
+         * free. Candidates are produced from free slots only, by aligning
+         * the lowest child with them.
+         * @param mask bitmap of children
+         * @return base for children
+         */
+        private int findBase(int mask) {
+            int lowest = Integer.numberOfTrailingZeros(mask) + 1;
+            int free = FREE_HEAD;
+            while (true) {
+                if (nextFree[free] == FREE_HEAD) {
+                    grow(check.length * 2);
+                }
+                int candidate = nextFree[free];
+                int b = candidate - lowest;
+                if (b >= 1) {
+                    if (b + RWayTrie.R >= check.length) {
+                        grow(b + RWayTrie.R + 1);
+                    }
+                    if (fits(b, mask)) {
+                        return b;
+                    }
+                }
+                if (++misses[candidate] == MAX_MISSES) {
+                    unlink(candidate);
+                } else {
+                    free = candidate;
+                }
+            }
+        }
+
+        private boolean fits(int b, int mask) {
+            for (int bits = mask; bits != 0; bits &= bits - 1) {
+                int slot = b + Integer.numberOfTrailingZeros(bits) + 1;
+                if (check[slot] != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void take(int slot) {
+            if (nextFree[slot] != UNLINKED) {
+                unlink(slot);
+            }
+        }
+
+        private void unlink(int slot) {
+            nextFree[prevFree[slot]] = nextFree[slot];
+            prevFree[nextFree[slot]] = prevFree[slot];
+            nextFree[slot] = UNLINKED;
+            prevFree[slot] = UNLINKED;
+        }
+
+        /**
+         * Appends slots {@code from..to-1} to the tail of the free list.
+         * @param from first slot
+         * @param to slot after the last one
+         */
+        private void linkFree(int from, int to) {
+            int tail = prevFree[FREE_HEAD];
+            for (int slot = from; slot < to; ++slot) {
+                nextFree[tail] = slot;
+                prevFree[slot] = tail;
+                tail = slot;
+            }
+            nextFree[tail] = FREE_HEAD;
+            prevFree[FREE_HEAD] = tail;
+        }
+
+        private void grow(int minCapacity) {
+            int oldCapacity = check.length;
+            int newSize = Math.max(oldCapacity * 2, minCapacity);
+            base = Arrays.copyOf(base, newSize);
+            check = Arrays.copyOf(check, newSize);
+            values = Arrays.copyOf(values, newSize);
+            maxWeights = Arrays.copyOf(maxWeights, newSize);
+            masks = Arrays.copyOf(masks, newSize);
+            nextFree = Arrays.copyOf(nextFree, newSize);
+            prevFree = Arrays.copyOf(prevFree, newSize);
+            misses = Arrays.copyOf(misses, newSize);
+            linkFree(oldCapacity, newSize);
+        }
+
+        /**
+         * Node of source trie together with its state.
+         */
+        private static class Pending {
+            private final RWayTrie.Node node;
+            private final int state;
+
+            Pending(RWayTrie.Node node, int state) {
+                this.node = node;
+                this.state = state;
+            }
+        }
+    }
+}
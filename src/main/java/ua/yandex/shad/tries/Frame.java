@@ -0,0 +1,155 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.tries;
+
+/**
+ * Position reached by a trie traversal.
+ * Instead of a word every frame keeps only the last character and a link
+ * to the parent frame; words are spelled only for frames that are
+ * actually returned (see {@link Traversal}).
+ * @param <N> type of trie nodes
+ */
+final class Frame<N> {
+
+    /**
+     * Node of the position.
+     */
+    private final N node;
+
+    /**
+     * Second layout specific number of the position, for tries that
+     * describe a position by two numbers, e.g. state of an automaton and
+     * rank of its words. Zero for other tries.
+     */
+    private final int state;
+
+    /**
+     * Layout specific position inside the node, e.g. amount of characters
+     * consumed on a compressed edge. Zero for tries with one character
+     * per link.
+     */
+    private final int offset;
+
+    /**
+     * Frame of the previous character, null for the first frame.
+     */
+    private final Frame<N> parent;
+
+    /**
+     * Last character of the word leading to the position.
+     */
+    private final char label;
+
+    /**
+     * Length of the word leading to the position.
+     */
+    private final int depth;
+
+    private Frame(N node, int state, int offset, Frame<N> parent,
+                  char label, int depth) {
+        this.node = node;
+        this.state = state;
+        this.offset = offset;
+        this.parent = parent;
+        this.label = label;
+        this.depth = depth;
+    }
+
+    /**
+     * Makes frame for the position reached by prefix of length
+     * {@code depth}.
+     * @param node node of the position
+     * @param offset position inside the node
+     * @param depth length of prefix
+     * @param <N> type of trie nodes
+     * @return first frame of traversal
+     */
+    static <N> Frame<N> start(N node, int offset, int depth) {
+        return start(node, 0, offset, depth);
+    }
+
+    /**
+     * Makes frame for the position reached by prefix of length
+     * {@code depth} in a trie that needs two numbers per position.
+     * @param node node of the position, may be null
+     * @param state number of the position
+     * @param offset position inside the node
+     * @param depth length of prefix
+     * @param <N> type of trie nodes
+     * @return first frame of traversal
+     */
+    static <N> Frame<N> start(N node, int state, int offset, int depth) {
+        return new Frame<>(node, state, offset, null, '\0', depth);
+    }
+
+    /**
+     * Makes frame for the position one character below this one.
+     * @param childNode node of the new position
+     * @param childOffset position inside the node
+     * @param c character leading to the new position
+     * @return frame of child
+     */
+    Frame<N> child(N childNode, int childOffset, char c) {
+        return child(childNode, 0, childOffset, c);
+    }
+
+    /**
+     * Makes frame for the position one character below this one in a trie
+     * that needs two numbers per position.
+     * @param childNode node of the new position, may be null
+     * @param childState number of the new position
+     * @param childOffset position inside the node
+     * @param c character leading to the new position
+     * @return frame of child
+     */
+    Frame<N> child(N childNode, int childState, int childOffset, char c) {
+        return new Frame<>(childNode, childState, childOffset, this, c,
+                depth + 1);
+    }
+
+    N getNode() {
+        return node;
+    }
+
+    int getState() {
+        return state;
+    }
+
+    int getOffset() {
+        return offset;
+    }
+
+    Frame<N> getParent() {
+        return parent;
+    }
+
+    char getLabel() {
+        return label;
+    }
+
+    int getDepth() {
+        return depth;
+    }
+}
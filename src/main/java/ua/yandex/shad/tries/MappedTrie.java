@@ -0,0 +1,296 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.tries;
+
+import ua.yandex.shad.collections.Queue;
+import ua.yandex.shad.collections.Tuple;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+/**
+ * Read-only trie that works directly over a file written by
+ * {@link RWayTrie#save(java.nio.channels.WritableByteChannel)}.
+ * Nothing is deserialized: the file is mapped into memory and every
+ * query reads node records in place, so opening costs only a
+ * {@code mmap}, the dictionary is not on the heap, and JVMs on the same
+ * host share the pages through the page cache. Only the read side of
+ * {@link Trie} is supported.
+ * Opening checks only the header. Every record is checked the same way
+ * {@link Snapshot} checks it on restore, but when a query reaches it, so
+ * a corrupted file can't make a query read outside of it or loop.
+ * @see Snapshot
+ */
+public class MappedTrie implements Trie {
+
+    /**
+     * Value that represents that node don't contains anything.
+     */
+    public static final int DEFAULT_VALUE = RWayTrie.DEFAULT_VALUE;
+
+    /**
+     * Result of a lookup that fell off the trie.
+     */
+    private static final int NO_NODE = -1;
+
+    /**
+     * Bytes of snapshot.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Amount of words stored in trie.
+     */
+    private final int size;
+
+    /**
+     * Amount of node records.
+     */
+    private final int count;
+
+    /**
+     * Enumeration of words in this trie.
+     */
+    private final Traversal<Void> traversal = new RecordTraversal();
+
+    /**
+     * Constructs trie over bytes of a snapshot. Buffer is only read with
+     * absolute gets through a big-endian view, so it may be shared and
+     * its byte order doesn't matter.
+     * @param buffer bytes of snapshot
+     * @throws IOException if buffer doesn't hold a valid snapshot
+     */
+    public MappedTrie(ByteBuffer buffer) throws IOException {
+        ByteBuffer bytes = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        if (bytes.capacity() < Snapshot.HEADER_BYTES) {
+            throw new IOException("Truncated trie snapshot");
+        }
+        count = Snapshot.checkHeader(bytes);
+        long length = Snapshot.HEADER_BYTES
+                + (long) count * Snapshot.RECORD_BYTES;
+        if (bytes.capacity() < length) {
+            throw new IOException("Truncated trie snapshot");
+        }
+        this.buffer = bytes;
+        size = bytes.getInt(Snapshot.HEADER_SIZE);
+    }
+
+    /**
+     * Maps snapshot at {@code path} read-only. Mapping stays valid after
+     * the file is closed and is released when the trie is collected.
+     * @param path file written by {@link RWayTrie#save}
+     * @return trie over the file
+     * @throws IOException if file can't be mapped or is not a snapshot
+     */
+    public static MappedTrie open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path)) {
+            return new MappedTrie(channel.map(FileChannel.MapMode.READ_ONLY,
+                    0, channel.size()));
+        }
+    }
+
+    /**
+     * Adding is not supported by mapped trie.
+     * @param t tuple to add
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void add(Tuple t) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Checks if Trie contains {@code word}.
+     * @param word actual word to check
+     * @return true,  if yes
+     *         false, otherwise
+     */
+    @Override
+    public boolean contains(String word) {
+        int node = find(word);
+        return node != NO_NODE && value(node) != DEFAULT_VALUE;
+    }
+
+    /**
+     * Deleting is not supported by mapped trie.
+     * @param word actual word to delete
+     * @return never returns
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean delete(String word) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Gets <b>all</b> words from Trie.
+     * @return instance of Iterable class with desired words
+     * @see Iterable
+     */
+    @Override
+    public Iterable<String> words() {
+        return wordsWithPrefix("");
+    }
+
+    /**
+     * Gets <b>only</b> words that match prefix {@code pref}.
+     * @param pref actual prefix to match
+     * @return instance of Iterable class with desired words
+     */
+    @Override
+    public Iterable<String> wordsWithPrefix(String pref) {
+        return traversal.byLength(pref, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets words that match prefix {@code pref} with at most {@code k}
+     * different lengths.
+     * @param pref actual prefix to match
+     * @param k number of different lengths
+     * @return instance of Iterable class with desired words
+     */
+    @Override
+    public Iterable<String> wordsWithPrefix(String pref, int k) {
+        return traversal.byLength(pref, k);
+    }
+
+    /**
+     * Gets {@code k} words with the biggest weights that match {@code pref}.
+     * @param pref actual prefix to match
+     * @param k amount of words to get
+     * @return instance of Iterable class with words in order of decreasing
+     *         weight
+     */
+    @Override
+    public Iterable<String> topK(String pref, int k) {
+        return traversal.byWeight(pref, k);
+    }
+
+    /**
+     * Gets amount of Trie.
+     * @return count of words in Trie
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Describes layout of snapshot to shared traversals.
+     * There are no node objects, frame offset is the index of a record.
+     */
+    private class RecordTraversal extends Traversal<Void> {
+
+        @Override
+        Frame<Void> start(String pref) {
+            int node = find(pref);
+            if (node == NO_NODE) {
+                return null;
+            }
+            return Frame.start(null, node, pref.length());
+        }
+
+        @Override
+        boolean isWord(Frame<Void> frame) {
+            return value(frame.getOffset()) != DEFAULT_VALUE;
+        }
+
+        @Override
+        int weight(Frame<Void> frame) {
+            return value(frame.getOffset());
+        }
+
+        @Override
+        int maxWeight(Frame<Void> frame) {
+            return field(frame.getOffset(), Snapshot.MAX_WEIGHT);
+        }
+
+        @Override
+        void expand(Frame<Void> frame, Queue<Frame<Void>> children) {
+            int node = frame.getOffset();
+            int bits = field(node, Snapshot.MASK);
+            int child = firstChild(node, bits);
+            while (bits != 0) {
+                int i = Integer.numberOfTrailingZeros(bits);
+                children.add(frame.child(null, child,
+                        (char) (RWayTrie.FIRST_CHAR + i)));
+                child++;
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    /**
+     * Follows links of {@code key} from the root.
+     * @param key string to match
+     * @return index of reached record or {@link #NO_NODE}
+     */
+    private int find(String key) {
+        int node = 0;
+        for (int j = 0; j < key.length(); ++j) {
+            int i = key.charAt(j) - RWayTrie.FIRST_CHAR;
+            if (i < 0 || i >= RWayTrie.R) {
+                return NO_NODE;
+            }
+            int bit = 1 << i;
+            int mask = field(node, Snapshot.MASK);
+            if ((mask & bit) == 0) {
+                return NO_NODE;
+            }
+            node = firstChild(node, mask)
+                    + Integer.bitCount(mask & (bit - 1));
+        }
+        return node;
+    }
+
+    /**
+     * Gets index of the first child of {@code node} and checks that all
+     * children of the node are valid records after it.
+     * @param node index of a valid record
+     * @param mask bitmap of children of the record
+     * @return index of the first child
+     * @throws IllegalStateException if record is corrupted
+     */
+    private int firstChild(int node, int mask) {
+        int first = field(node, Snapshot.FIRST_CHILD);
+        if (mask >>> RWayTrie.R != 0 || first <= node
+                || first > count - Integer.bitCount(mask)) {
+            throw new IllegalStateException("Corrupted trie snapshot");
+        }
+        return first;
+    }
+
+    private int value(int node) {
+        return field(node, Snapshot.VALUE);
+    }
+
+    private int field(int node, int offset) {
+        return buffer.getInt(Snapshot.HEADER_BYTES
+                + node * Snapshot.RECORD_BYTES + offset);
+    }
+}
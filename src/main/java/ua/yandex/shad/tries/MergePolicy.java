@@ -0,0 +1,70 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.tries;
+
+/**
+ * Resolves weight of a word that is in both tries being merged.
+ * @see RWayTrie#merge(RWayTrie, MergePolicy)
+ */
+public interface MergePolicy {
+
+    /**
+     * Takes the bigger weight.
+     */
+    MergePolicy MAX_WEIGHT = new MergePolicy() {
+        @Override
+        public int resolve(int left, int right) {
+            return Math.max(left, right);
+        }
+    };
+
+    /**
+     * Adds weights up, e.g. frequencies of two corpora.
+     */
+    MergePolicy SUM = new MergePolicy() {
+        @Override
+        public int resolve(int left, int right) {
+            return left + right;
+        }
+    };
+
+    /**
+     * Keeps weight of the trie merged into.
+     */
+    MergePolicy KEEP_LEFT = new MergePolicy() {
+        @Override
+        public int resolve(int left, int right) {
+            return left;
+        }
+    };
+
+    /**
+     * Resolves weight of a common word.
+     * @param left weight in the trie merged into
+     * @param right weight in the other trie
+     * @return weight to keep, must not be {@link RWayTrie#DEFAULT_VALUE}
+     */
+    int resolve(int left, int right);
+}
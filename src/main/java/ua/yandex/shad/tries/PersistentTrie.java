@@ -0,0 +1,411 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.tries;
+
+import ua.yandex.shad.collections.Queue;
+import ua.yandex.shad.collections.Tuple;
+
+/**
+ * Immutable R-way trie with path copying.
+ * {@link #with(Tuple)} and {@link #without(String)} return a new version
+ * and leave this one as it is. Only nodes on the way to the changed word
+ * are copied, every other subtree is shared with the previous version,
+ * so a change costs O(L) time and memory for a word of length L and any
+ * number of versions can be kept and read at once.
+ * Nodes keep only present links, packed in alphabetical order and
+ * addressed through a bitmap, so copying a node costs its degree rather
+ * than size of alphabet. Only the read side of {@link Trie} is supported,
+ * {@code add} and {@code delete} throw.
+ */
+public class PersistentTrie implements Trie {
+
+    /**
+     * Size of alphabet.
+     */
+    public static final int R = RWayTrie.R;
+
+    /**
+     * Character that has index zero in link bitmap.
+     */
+    public static final char FIRST_CHAR = RWayTrie.FIRST_CHAR;
+
+    /**
+     * Value of node, that has no word.
+     */
+    public static final int DEFAULT_VALUE = RWayTrie.DEFAULT_VALUE;
+
+    private final Node root;
+    private final int size;
+    private final Traversal<Node> traversal = new NodeTraversal();
+
+    /**
+     * Construct empty PersistentTrie.
+     */
+    public PersistentTrie() {
+        this(Node.EMPTY, 0);
+    }
+
+    private PersistentTrie(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Immutable node of PersistentTrie.
+     */
+    static final class Node {
+        private static final Node[] NO_LINKS = new Node[0];
+        private static final Node EMPTY =
+                new Node(DEFAULT_VALUE, 0, NO_LINKS);
+
+        private final int value;
+        private final int maxWeight;
+        private final int mask;
+        private final Node[] next;
+
+        private Node(int value, int mask, Node[] next) {
+            this.value = value;
+            this.mask = mask;
+            this.next = next;
+            int max = value;
+            for (Node child : next) {
+                max = Math.max(max, child.maxWeight);
+            }
+            this.maxWeight = max;
+        }
+
+        int getValue() {
+            return value;
+        }
+
+        int getMaxWeight() {
+            return maxWeight;
+        }
+
+        boolean isEmpty() {
+            return value == DEFAULT_VALUE;
+        }
+
+        private boolean isRedundant() {
+            return isEmpty() && mask == 0;
+        }
+
+        /**
+         * Gets child of character {@code c}.
+         * @param c actual character
+         * @return child node or null
+         */
+        Node getNext(char c) {
+            int bit = toBit(c);
+            if ((mask & bit) == 0) {
+                return null;
+            }
+            return next[Integer.bitCount(mask & (bit - 1))];
+        }
+
+        /**
+         * Makes copy of the node with another value.
+         * @param weight new value
+         * @return changed copy
+         */
+        private Node withValue(int weight) {
+            return new Node(weight, mask, next);
+        }
+
+        /**
+         * Makes copy of the node with another child of character
+         * {@code c}; links to other children are shared.
+         * @param c actual character
+         * @param child new child or null to remove the link
+         * @return changed copy
+         */
+        private Node withNext(char c, Node child) {
+            int bit = toBit(c);
+            int position = Integer.bitCount(mask & (bit - 1));
+            boolean present = (mask & bit) != 0;
+            Node[] links;
+            int newMask;
+            if (child == null) {
+                newMask = mask & ~bit;
+                links = new Node[next.length - 1];
+                System.arraycopy(next, 0, links, 0, position);
+                System.arraycopy(next, position + 1, links, position,
+                        next.length - position - 1);
+            } else if (present) {
+                newMask = mask;
+                links = next.clone();
+                links[position] = child;
+            } else {
+                newMask = mask | bit;
+                links = new Node[next.length + 1];
+                System.arraycopy(next, 0, links, 0, position);
+                links[position] = child;
+                System.arraycopy(next, position, links, position + 1,
+                        next.length - position);
+            }
+            return new Node(value, newMask, links);
+        }
+    }
+
+    /**
+     * Converts character {@code c} to its bit in link bitmap.
+     * @param c actual character
+     * @return desired bit
+     * @throws ArrayIndexOutOfBoundsException if {@code c} is not in alphabet
+     */
+    private static int toBit(char c) {
+        int i = c - FIRST_CHAR;
+        if (i < 0 || i >= R) {
+            throw new ArrayIndexOutOfBoundsException(i);
+        }
+        return 1 << i;
+    }
+
+    /**
+     * Makes version of Trie with word from {@code t} added. If word is
+     * already there, its weight is kept and this version is returned.
+     * @param t tuple to add
+     * @return new version
+     */
+    public PersistentTrie with(Tuple t) {
+        if (contains(t.getTerm())) {
+            return this;
+        }
+        return new PersistentTrie(
+                insert(root, t.getTerm(), 0, t.getWeight()), size + 1);
+    }
+
+    /**
+     * Makes version of Trie without {@code word}. Nodes left without
+     * words are not copied to the new version. If there is no such word,
+     * this version is returned.
+     * @param word actual word to delete
+     * @return new version
+     */
+    public PersistentTrie without(String word) {
+        if (!contains(word)) {
+            return this;
+        }
+        Node changed = remove(root, word, 0);
+        if (changed == null) {
+            changed = Node.EMPTY;
+        }
+        return new PersistentTrie(changed, size - 1);
+    }
+
+    /**
+     * Adding is not supported by persistent trie.
+     * @param t tuple to add
+     * @throws UnsupportedOperationException always
+     * @see #with(Tuple)
+     */
+    @Override
+    public void add(Tuple t) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Checks if Trie contains {@code word}.
+     * @param word actual word to check
+     * @return true,  if yes
+     *         false, otherwise
+     */
+    @Override
+    public boolean contains(String word) {
+        Node node = get(word);
+        return node != null && !node.isEmpty();
+    }
+
+    /**
+     * Deleting is not supported by persistent trie.
+     * @param word actual word to delete
+     * @return never returns
+     * @throws UnsupportedOperationException always
+     * @see #without(String)
+     */
+    @Override
+    public boolean delete(String word) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Gets <b>all</b> words from Trie.
+     * @return instance of Iterable class with desired words
+     */
+    @Override
+    public Iterable<String> words() {
+        return wordsWithPrefix("");
+    }
+
+    /**
+     * Gets <b>only</b> words that match prefix {@code pref}.
+     * @param pref actual prefix to match
+     * @return instance of Iterable class with desired words
+     */
+    @Override
+    public Iterable<String> wordsWithPrefix(String pref) {
+        return traversal.byLength(pref, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets words that match prefix {@code pref} with at most {@code k}
+     * different lengths.
+     * @param pref actual prefix to match
+     * @param k number of different lengths
+     * @return instance of Iterable class with desired words
+     */
+    @Override
+    public Iterable<String> wordsWithPrefix(String pref, int k) {
+        return traversal.byLength(pref, k);
+    }
+
+    /**
+     * Gets {@code k} words with the biggest weights that match {@code pref}.
+     * @param pref actual prefix to match
+     * @param k amount of words to get
+     * @return instance of Iterable class with words, heaviest first
+     */
+    @Override
+    public Iterable<String> topK(String pref, int k) {
+        return traversal.byWeight(pref, k);
+    }
+
+    /**
+     * Gets amount of words in Trie.
+     * @return count of words in Trie
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets root node of Trie.
+     * Needed for testing.
+     * @return root node
+     */
+    Node getRoot() {
+        return root;
+    }
+
+    /**
+     * Gets node reached by {@code key}.
+     * @param key actual key
+     * @return node or null if there is no such node
+     */
+    private Node get(String key) {
+        Node cur = root;
+        for (int i = 0; i < key.length() && cur != null; ++i) {
+            cur = cur.getNext(key.charAt(i));
+        }
+        return cur;
+    }
+
+    /**
+     * Copies path from {@code node} to the new word.
+     * @param node node reached by the first {@code depth} characters
+     * @param key word to add
+     * @param depth amount of characters consumed
+     * @param weight weight of the word
+     * @return copy of the node with the word below it
+     */
+    private static Node insert(Node node, String key, int depth,
+                               int weight) {
+        if (depth == key.length()) {
+            return node.withValue(weight);
+        }
+        char c = key.charAt(depth);
+        Node child = node.getNext(c);
+        if (child == null) {
+            child = Node.EMPTY;
+        }
+        return node.withNext(c, insert(child, key, depth + 1, weight));
+    }
+
+    /**
+     * Copies path from {@code node} to the deleted word.
+     * @param node node reached by the first {@code depth} characters
+     * @param key word to delete, present in Trie
+     * @param depth amount of characters consumed
+     * @return copy of the node without the word, or null if nothing
+     *         is left below it
+     */
+    private static Node remove(Node node, String key, int depth) {
+        Node changed;
+        if (depth == key.length()) {
+            changed = node.withValue(DEFAULT_VALUE);
+        } else {
+            char c = key.charAt(depth);
+            changed = node.withNext(c,
+                    remove(node.getNext(c), key, depth + 1));
+        }
+        if (changed.isRedundant()) {
+            return null;
+        }
+        return changed;
+    }
+
+    /**
+     * Describes layout of PersistentTrie to shared traversals.
+     */
+    private class NodeTraversal extends Traversal<Node> {
+
+        @Override
+        Frame<Node> start(String pref) {
+            Node node = get(pref);
+            if (node == null) {
+                return null;
+            }
+            return Frame.start(node, 0, pref.length());
+        }
+
+        @Override
+        boolean isWord(Frame<Node> frame) {
+            return !frame.getNode().isEmpty();
+        }
+
+        @Override
+        int weight(Frame<Node> frame) {
+            return frame.getNode().getValue();
+        }
+
+        @Override
+        int maxWeight(Frame<Node> frame) {
+            return frame.getNode().getMaxWeight();
+        }
+
+        @Override
+        void expand(Frame<Node> frame, Queue<Frame<Node>> children) {
+            Node parent = frame.getNode();
+            int position = 0;
+            for (int bits = parent.mask; bits != 0; bits &= bits - 1) {
+                char c = (char) (FIRST_CHAR
+                        + Integer.numberOfTrailingZeros(bits));
+                children.add(frame.child(parent.next[position], 0, c));
+                position++;
+            }
+        }
+    }
+}
@@ -24,11 +24,28 @@
 
 package ua.yandex.shad.tries;
 
-import ua.yandex.shad.collections.StringArray;
+import ua.yandex.shad.collections.Queue;
 import ua.yandex.shad.collections.Tuple;
 
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
+/**
+ * R-way trie over lowercase latin letters.
+ * Trie is not thread-safe and its changes are not reentrant: deletions
+ * share one reusable path buffer, so concurrent use needs outside
+ * synchronization, as done by the wrappers in
+ * {@code ua.yandex.shad.autocomplete}.
+ */
 public class RWayTrie implements Trie {
 
     /**
@@ -46,6 +63,11 @@ public class RWayTrie implements Trie {
      */
     public static final int DEFAULT_VALUE = -1;
 
+    /**
+     * Initial capacity of the path stack used by deletion.
+     */
+    private static final int INITIAL_PATH_CAPACITY = 16;
+
     /**
      * Root of the Trie.
      */
@@ -56,13 +78,106 @@ public class RWayTrie implements Trie {
      */
     private int size;
 
+    /**
+     * Enumeration of words in this trie.
+     */
+    private final Traversal<Node> traversal = new NodeTraversal();
+
+    /**
+     * Reusable stack of nodes along a word, so that deletion doesn't
+     * allocate. It is filled by {@link #descend(String)} and
+     * {@link #removeAll(Iterable)} and cleared after every use, so only
+     * one change may use it at a time.
+     */
+    private Node[] path = new Node[INITIAL_PATH_CAPACITY];
+
+    /**
+     * Constructs empty Trie.
+     */
+    public RWayTrie() {
+    }
+
+    /**
+     * Constructs Trie from ready nodes.
+     * @param root root of nodes
+     * @param size amount of words below root
+     */
+    RWayTrie(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
     /**
      * Nested class to represent Node of Trie.
+     * Links are stored adaptively, in the spirit of adaptive radix trees:
+     * a leaf has no link array at all, a node with few children keeps them
+     * packed in an array of 4 or 16 slots ordered by character, and only
+     * a node with more than 16 children gets a full array of {@code R}
+     * slots indexed directly by character. Presence of a child is kept
+     * in bitmap {@code mask}, so packed position of a child is the number
+     * of present children with smaller characters.
      */
     static class Node {
 
+        /**
+         * Capacity of the smallest packed layout.
+         */
+        static final int NODE4 = 4;
+
+        /**
+         * Capacity of the biggest packed layout.
+         */
+        static final int NODE16 = 16;
+
+        /**
+         * Link array shared by all nodes without children.
+         */
+        private static final Node[] NO_LINKS = new Node[0];
+
         private int value = DEFAULT_VALUE;
-        private Node[] next = new Node[R];
+        private int maxWeight = DEFAULT_VALUE;
+        private int count;
+        private int mask;
+        private Node[] next = NO_LINKS;
+
+        Node() {
+        }
+
+        /**
+         * Constructs node with all its children at once, in the layout
+         * that {@link #setNext(char, Node)} would end up with.
+         * @param value value of node
+         * @param maxWeight the biggest value in subtree
+         * @param mask bitmap of children
+         * @param nodes array that contains children in order of characters
+         * @param first index of the first child in {@code nodes}
+         */
+        Node(int value, int maxWeight, int mask, Node[] nodes, int first) {
+            this.value = value;
+            this.maxWeight = maxWeight;
+            this.mask = mask;
+            if (value != DEFAULT_VALUE) {
+                this.count = 1;
+            }
+            int degree = Integer.bitCount(mask);
+            for (int i = first; i < first + degree; ++i) {
+                this.count += nodes[i].count;
+            }
+            if (degree > NODE16) {
+                next = new Node[R];
+                int pos = first;
+                for (int bits = mask; bits != 0; bits &= bits - 1) {
+                    next[Integer.numberOfTrailingZeros(bits)] = nodes[pos++];
+                }
+            } else if (degree > 0) {
+                int capacity = NODE4;
+                if (degree > NODE4) {
+                    capacity = NODE16;
+                }
+                next = new Node[capacity];
+                System.arraycopy(nodes, first, next, 0, degree);
+            }
+        }
 
         public int getValue() {
             return value;
@@ -72,12 +187,93 @@ public class RWayTrie implements Trie {
             this.value = newValue;
         }
 
+        /**
+         * Gets the biggest value stored in subtree of this node.
+         * @return maximal weight or {@code DEFAULT_VALUE} if subtree is empty
+         */
+        public int getMaxWeight() {
+            return maxWeight;
+        }
+
+        /**
+         * Takes {@code weight} of a word added to subtree into account.
+         * @param weight weight of new word
+         */
+        void raiseMaxWeight(int weight) {
+            maxWeight = Math.max(maxWeight, weight);
+        }
+
+        /**
+         * Recomputes maximal weight from own value and children.
+         * @return true,  if maximal weight has changed
+         *         false, otherwise
+         */
+        boolean updateMaxWeight() {
+            int max = value;
+            for (Node child : next) {
+                if (child != null) {
+                    max = Math.max(max, child.maxWeight);
+                }
+            }
+            boolean changed = max != maxWeight;
+            maxWeight = max;
+            return changed;
+        }
+
+        /**
+         * Gets amount of words in subtree of this node, including the word
+         * ending here.
+         * @return count of words
+         */
+        int getCount() {
+            return count;
+        }
+
+        /**
+         * Takes words added to or removed from subtree into account.
+         * @param delta change of amount of words
+         */
+        void addCount(int delta) {
+            count += delta;
+        }
+
+        /**
+         * Recomputes amount of words from own value and children.
+         */
+        void updateCount() {
+            int total = 0;
+            if (!isEmpty()) {
+                total = 1;
+            }
+            for (Node child : next) {
+                if (child != null) {
+                    total += child.count;
+                }
+            }
+            count = total;
+        }
+
         public Node getNext(char c) {
-            return next[toIndex(c)];
+            int i = toIndex(c);
+            int bit = toBit(i);
+            if ((mask & bit) == 0) {
+                return null;
+            }
+            return next[position(i, bit)];
         }
 
         public void setNext(char c, Node x) {
-            next[toIndex(c)] = x;
+            int i = toIndex(c);
+            int bit = toBit(i);
+            if ((mask & bit) != 0) {
+                if (x == null) {
+                    unlink(i, bit);
+                } else {
+                    next[position(i, bit)] = x;
+                }
+            } else if (x != null) {
+                link(i, bit, x);
+            }
         }
 
         public boolean isEmpty() {
@@ -85,12 +281,121 @@ public class RWayTrie implements Trie {
         }
 
         public boolean isRedundant() {
-            for (int i = 0; i < R; ++i) {
-                if (next[i] != null) {
-                    return false;
+            return mask == 0 && isEmpty();
+        }
+
+        /**
+         * Gets bitmap of present children.
+         * Bit {@code i} is set if there is a link for {@code toChar(i)}.
+         * @return bitmap of children
+         */
+        int getMask() {
+            return mask;
+        }
+
+        /**
+         * Package private method used in Tests.
+         * @return amount of slots in link array
+         */
+        int capacity() {
+            return next.length;
+        }
+
+        private static int toBit(int i) {
+            if (i < 0 || i >= R) {
+                throw new ArrayIndexOutOfBoundsException(i);
+            }
+            return 1 << i;
+        }
+
+        private boolean isFull() {
+            return next.length == R;
+        }
+
+        private int position(int i, int bit) {
+            if (isFull()) {
+                return i;
+            }
+            return Integer.bitCount(mask & (bit - 1));
+        }
+
+        private void link(int i, int bit, Node x) {
+            int count = Integer.bitCount(mask);
+            if (!isFull() && count == next.length) {
+                relayout(grownCapacity());
+            }
+            if (!isFull()) {
+                int pos = position(i, bit);
+                System.arraycopy(next, pos, next, pos + 1, count - pos);
+                next[pos] = x;
+            } else {
+                next[i] = x;
+            }
+            mask |= bit;
+        }
+
+        private void unlink(int i, int bit) {
+            int count = Integer.bitCount(mask) - 1;
+            if (isFull()) {
+                next[i] = null;
+            } else {
+                int pos = position(i, bit);
+                System.arraycopy(next, pos + 1, next, pos, count - pos);
+                next[count] = null;
+            }
+            mask &= ~bit;
+            int capacity = shrunkCapacity(count);
+            if (capacity < next.length) {
+                relayout(capacity);
+            }
+        }
+
+        private int grownCapacity() {
+            if (next.length == 0) {
+                return NODE4;
+            }
+            if (next.length == NODE4) {
+                return NODE16;
+            }
+            return R;
+        }
+
+        /**
+         * Picks the smallest layout that still leaves a free slot after
+         * removal, so that alternating add/delete of one child on the
+         * boundary does not move links back and forth.
+         * @param count amount of children left
+         * @return capacity of new layout
+         */
+        private int shrunkCapacity(int count) {
+            if (count == 0) {
+                return 0;
+            }
+            if (count < NODE4) {
+                return NODE4;
+            }
+            if (count < NODE16) {
+                return NODE16;
+            }
+            return R;
+        }
+
+        private void relayout(int capacity) {
+            Node[] links = NO_LINKS;
+            if (capacity > 0) {
+                links = new Node[capacity];
+            }
+            int pos = 0;
+            for (int bits = mask; bits != 0; bits &= bits - 1) {
+                int i = Integer.numberOfTrailingZeros(bits);
+                Node child = next[position(i, 1 << i)];
+                if (capacity == R) {
+                    links[i] = child;
+                } else {
+                    links[pos++] = child;
                 }
             }
-            return isEmpty();
+            next = links;
         }
     }
 
@@ -118,19 +423,132 @@ public class RWayTrie implements Trie {
      */
     @Override
     public void add(Tuple t) {
-        String key = t.getTerm();
-        int value = t.getWeight();
-        Node cur = root;
-        for (char c : key.toCharArray()) {
-            if (cur.getNext(c) == null) {
-                cur.setNext(c, new Node());
+        if (insert(root, t.getTerm(), 0, t.getWeight())) {
+            size++;
+        }
+    }
+
+    /**
+     * Adds all {@code tuples} to Trie in parallel on a shared fork-join
+     * pool.
+     * @param tuples tuples to add
+     * @see #addAll(Collection, ForkJoinPool)
+     */
+    public void addAll(Collection<Tuple> tuples) {
+        addAll(tuples, SharedPool.POOL);
+    }
+
+    /**
+     * Adds all {@code tuples} to Trie in parallel on {@code pool}.
+     * Subtrees of the root are independent, so words are partitioned by
+     * their first character and every partition is inserted into its own
+     * subtree by a separate task. Only this thread touches the root:
+     * missing children are linked before the tasks start, and size and
+     * maximal weight of the root are updated once all of them are done.
+     * As with {@link #add(Tuple)}, weight of a word that is already in
+     * Trie is not changed. All words are checked before anything is
+     * inserted, so a word out of alphabet leaves Trie unchanged.
+     * @param tuples tuples to add
+     * @param pool pool to run tasks on
+     * @throws ArrayIndexOutOfBoundsException if a word has a character
+     *         out of alphabet
+     */
+    public void addAll(Collection<Tuple> tuples, ForkJoinPool pool) {
+        for (Tuple tuple : tuples) {
+            String key = tuple.getTerm();
+            for (int j = 0; j < key.length(); ++j) {
+                int i = toIndex(key.charAt(j));
+                if (i < 0 || i >= R) {
+                    throw new ArrayIndexOutOfBoundsException(i);
+                }
             }
-            cur = cur.getNext(c);
         }
-        if (cur.isEmpty()) {
-            cur.setValue(value);
-            size++;
+        List<List<Tuple>> partitions = new ArrayList<>(R);
+        for (int i = 0; i < R; ++i) {
+            partitions.add(new ArrayList<Tuple>());
         }
+        int added = 0;
+        for (Tuple tuple : tuples) {
+            String key = tuple.getTerm();
+            if (key.isEmpty()) {
+                if (insert(root, key, 0, tuple.getWeight())) {
+                    added++;
+                }
+            } else {
+                partitions.get(toIndex(key.charAt(0))).add(tuple);
+            }
+        }
+        List<PartitionTask> tasks = new ArrayList<>();
+        for (int i = 0; i < R; ++i) {
+            List<Tuple> partition = partitions.get(i);
+            if (!partition.isEmpty()) {
+                char c = toChar(i);
+                if (root.getNext(c) == null) {
+                    root.setNext(c, new Node());
+                }
+                tasks.add(new PartitionTask(root.getNext(c), partition));
+            }
+        }
+        added += pool.invoke(new PartitionsTask(tasks));
+        root.updateMaxWeight();
+        root.updateCount();
+        size += added;
+    }
+
+    /**
+     * Builds Trie from tuples ordered by word.
+     * Nodes along the previous word are kept on a stack, so every word
+     * only descends from its longest common prefix with the previous one
+     * and each node is created and visited once. Maximal weights are
+     * computed when a node leaves the stack, i.e. when its subtree is
+     * complete. As with {@link #add(Tuple)}, the first weight of a
+     * repeated word is kept.
+     * @param tuples tuples in non-decreasing order of words
+     * @return built Trie
+     * @throws IllegalArgumentException if tuples are not ordered
+     */
+    public static RWayTrie fromSorted(Iterator<Tuple> tuples) {
+        RWayTrie trie = new RWayTrie();
+        Node[] stack = {trie.root};
+        String previous = "";
+        while (tuples.hasNext()) {
+            Tuple tuple = tuples.next();
+            String word = tuple.getTerm();
+            if (word.compareTo(previous) < 0) {
+                throw new IllegalArgumentException(
+                        "Words are not sorted: " + previous + ", " + word);
+            }
+            int common = 0;
+            int length = Math.min(word.length(), previous.length());
+            while (common < length
+                    && word.charAt(common) == previous.charAt(common)) {
+                common++;
+            }
+            for (int depth = previous.length(); depth > common; --depth) {
+                stack[depth].updateMaxWeight();
+                stack[depth].updateCount();
+            }
+            if (stack.length <= word.length()) {
+                stack = Arrays.copyOf(stack,
+                        Math.max(stack.length * 2, word.length() + 1));
+            }
+            for (int depth = common; depth < word.length(); ++depth) {
+                Node next = new Node();
+                stack[depth].setNext(word.charAt(depth), next);
+                stack[depth + 1] = next;
+            }
+            Node last = stack[word.length()];
+            if (last.isEmpty()) {
+                last.setValue(tuple.getWeight());
+                trie.size++;
+            }
+            previous = word;
+        }
+        for (int depth = previous.length(); depth >= 0; --depth) {
+            stack[depth].updateMaxWeight();
+            stack[depth].updateCount();
+        }
+        return trie;
     }
 
     /**
@@ -145,6 +563,20 @@ public class RWayTrie implements Trie {
         return node != null && !node.isEmpty();
     }
 
+    /**
+     * Gets weight of {@code word}.
+     * @param word actual word
+     * @return weight of word or {@link #DEFAULT_VALUE} if there is no
+     *         such word
+     */
+    public int getWeight(String word) {
+        Node node = get(word);
+        if (node == null) {
+            return DEFAULT_VALUE;
+        }
+        return node.getValue();
+    }
+
     /**
      * Deletes word from Trie.
      * @param word actual word to delete
@@ -153,15 +585,114 @@ public class RWayTrie implements Trie {
      */
     @Override
     public boolean delete(String word) {
-        if (!contains(word)) {
+        if (!descend(word)) {
+            return false;
+        }
+        int depth = word.length();
+        if (path[depth].isEmpty()) {
+            Arrays.fill(path, 0, depth + 1, null);
             return false;
         }
-        get(word).setValue(DEFAULT_VALUE);
-        clear(word);
+        path[depth].setValue(DEFAULT_VALUE);
+        for (int i = 0; i <= depth; ++i) {
+            path[i].addCount(-1);
+        }
+        prune(word, depth);
         size--;
         return true;
     }
 
+    /**
+     * Deletes all words that start with {@code pref}.
+     * The subtree of the prefix is unlinked as a whole, and amount of
+     * words in it is taken from the count cached in its root, so only
+     * nodes on the way to the prefix are visited.
+     * @param pref prefix of words to delete
+     * @return amount of deleted words
+     */
+    public int deletePrefix(String pref) {
+        if (!descend(pref)) {
+            return 0;
+        }
+        int depth = pref.length();
+        int removed = path[depth].getCount();
+        if (depth == 0) {
+            path[0] = null;
+            root = new Node();
+            size = 0;
+            return removed;
+        }
+        path[depth - 1].setNext(pref.charAt(depth - 1), null);
+        path[depth] = null;
+        for (int i = 0; i < depth; ++i) {
+            path[i].addCount(-removed);
+        }
+        prune(pref, depth - 1);
+        size -= removed;
+        return removed;
+    }
+
+    /**
+     * Deletes given words from Trie.
+     * Words are sorted first, so that nodes along the previous word can be
+     * kept on a stack, as in {@link #fromSorted(Iterator)}: every word
+     * only descends from its longest common prefix with the previous one,
+     * and a node is pruned or gets its maximal weight updated once, when
+     * it leaves the stack. Words Trie can't contain are skipped.
+     * @param words words to delete
+     * @return amount of deleted words
+     */
+    public int removeAll(Iterable<String> words) {
+        List<String> sorted = new ArrayList<>();
+        for (String word : words) {
+            sorted.add(word);
+        }
+        Collections.sort(sorted);
+        int removed = 0;
+        String previous = "";
+        int depth = 0;
+        path[0] = root;
+        for (String word : sorted) {
+            int common = 0;
+            int length = Math.min(depth, word.length());
+            while (common < length
+                    && word.charAt(common) == previous.charAt(common)) {
+                common++;
+            }
+            unwind(previous, depth, common);
+            depth = common;
+            if (path.length <= word.length()) {
+                path = Arrays.copyOf(path,
+                        Math.max(path.length * 2, word.length() + 1));
+            }
+            while (depth < word.length()) {
+                int i = toIndex(word.charAt(depth));
+                if (i < 0 || i >= R) {
+                    break;
+                }
+                Node next = path[depth].getNext(word.charAt(depth));
+                if (next == null) {
+                    break;
+                }
+                depth++;
+                path[depth] = next;
+            }
+            if (depth == word.length() && !path[depth].isEmpty()) {
+                path[depth].setValue(DEFAULT_VALUE);
+                for (int i = 0; i <= depth; ++i) {
+                    path[i].addCount(-1);
+                }
+                removed++;
+            }
+            previous = word;
+        }
+        unwind(previous, depth, 0);
+        path[0] = null;
+        root.updateMaxWeight();
+        size -= removed;
+        return removed;
+    }
+
     /**
      * Gets <b>all</b> words from Trie.
      * @return instance of Iterable class with desired words
@@ -179,71 +710,136 @@ public class RWayTrie implements Trie {
      */
     @Override
     public Iterable<String> wordsWithPrefix(String pref) {
-        return new WordsWithPrefixIterable(pref);
+        return traversal.byLength(pref, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets words that match prefix {@code pref} with at most {@code k}
+     * different lengths.
+     * Words come in order of length, which is the depth of their nodes, so
+     * traversal stops expanding nodes as soon as the k-th non-empty level
+     * is reached and deeper levels are never touched.
+     * @param pref actual prefix to match
+     * @param k number of different lengths
+     * @return instance of Iterable class with desired words
+     */
+    @Override
+    public Iterable<String> wordsWithPrefix(String pref, int k) {
+        return traversal.byLength(pref, k);
     }
 
-    private class WordsWithPrefixIterable implements Iterable<String> {
-        private String pref;
+    /**
+     * Gets {@code k} words with the biggest weights that match {@code pref}.
+     * Search is best-first: every node is ranked by the maximal weight in its
+     * subtree, so only nodes on the way to the answers are expanded.
+     * @param pref actual prefix to match
+     * @param k amount of words to get
+     * @return instance of Iterable class with words in order of decreasing
+     *         weight
+     */
+    @Override
+    public Iterable<String> topK(String pref, int k) {
+        return traversal.byWeight(pref, k);
+    }
 
-        public WordsWithPrefixIterable(String pref) {
-            this.pref = pref;
+    /**
+     * Describes layout of RWayTrie to shared traversals.
+     */
+    private class NodeTraversal extends Traversal<Node> {
+
+        @Override
+        Frame<Node> start(String pref) {
+            Node node = get(pref);
+            if (node == null) {
+                return null;
+            }
+            return Frame.start(node, 0, pref.length());
         }
 
         @Override
-        public Iterator<String> iterator() {
-            return new WordsWithPrefixIterator();
+        boolean isWord(Frame<Node> frame) {
+            return !frame.getNode().isEmpty();
         }
 
-        private class WordsWithPrefixIterator implements Iterator<String> {
-            private String next;
-            private Iterator<String> queueIterator;
-            private StringArray queue = new StringArray();
+        @Override
+        int weight(Frame<Node> frame) {
+            return frame.getNode().getValue();
+        }
 
-            public WordsWithPrefixIterator() {
-                Node prefRoot = get(pref);
-                if (prefRoot != null) {
-                    queueIterator = queue.iterator();
-                    queue.add(pref);
-                    updateNext();
-                }
-            }
+        @Override
+        int maxWeight(Frame<Node> frame) {
+            return frame.getNode().getMaxWeight();
+        }
 
-            private void updateNext() {
-                next = null;
-                String newNext;
-                while (queueIterator.hasNext()) {
-                    newNext = queueIterator.next();
-                    enqueuePrefix(newNext);
-                    if (!get(newNext).isEmpty()) {
-                        next = newNext;
-                        break;
-                    }
-                }
+        @Override
+        void expand(Frame<Node> frame, Queue<Frame<Node>> children) {
+            Node parent = frame.getNode();
+            int bits = parent.getMask();
+            while (bits != 0) {
+                char c = toChar(Integer.numberOfTrailingZeros(bits));
+                children.add(frame.child(parent.getNext(c), 0, c));
+                bits &= bits - 1;
             }
+        }
+    }
 
-            private void enqueuePrefix(String prefix) {
-                Node parent = get(prefix);
-                for (int i = 0; i < R; ++i) {
-                    Node child = parent.getNext(toChar(i));
-                    if (child != null) {
-                        String childString = prefix + toChar(i);
-                        queue.add(childString);
-                    }
-                }
-            }
 
-            @Override
-            public boolean hasNext() {
-                return next != null;
-            }
+    /**
+     * Compiles current content into an immutable {@link DoubleArrayTrie}.
+     * Later changes of this trie do not affect the result.
+     * @return frozen copy of Trie
+     */
+    public DoubleArrayTrie freeze() {
+        return new DoubleArrayTrie(root, size);
+    }
 
-            @Override
-            public String next() {
-                String current = next;
-                updateNext();
-                return current;
-            }
+    /**
+     * Moves all words of {@code other} to this Trie, keeping weights of
+     * this Trie for common words.
+     * @param other trie to take words from
+     * @see #merge(RWayTrie, MergePolicy)
+     */
+    public void merge(RWayTrie other) {
+        merge(other, MergePolicy.KEEP_LEFT);
+    }
+
+    /**
+     * Moves all words of {@code other} to this Trie. Both tries are walked
+     * together only where both have nodes; a subtree that only
+     * {@code other} has is adopted as it is, so the cost is linear in the
+     * size of the common part, and {@code other} is left empty.
+     * @param other trie to take words from
+     * @param policy resolves weight of a word that is in both tries
+     */
+    public void merge(RWayTrie other, MergePolicy policy) {
+        if (other == this) {
+            return;
         }
+        size += other.size - merge(root, other.root, policy);
+        other.root = new Node();
+        other.size = 0;
+    }
+
+    /**
+     * Writes content of Trie to {@code channel} in compact binary form,
+     * that can be read back by {@link #restore(ReadableByteChannel)}
+     * without tokenizing or adding words one by one.
+     * @param channel channel to write to
+     * @throws IOException if writing fails
+     */
+    public void save(WritableByteChannel channel) throws IOException {
+        Snapshot.write(root, size, channel);
+    }
+
+    /**
+     * Reads Trie saved by {@link #save(WritableByteChannel)}.
+     * @param channel channel to read from
+     * @return restored Trie
+     * @throws IOException if reading fails or data is not a saved Trie
+     */
+    public static RWayTrie restore(ReadableByteChannel channel)
+            throws IOException {
+        return Snapshot.read(channel);
     }
 
     /**
@@ -272,17 +868,210 @@ public class RWayTrie implements Trie {
     }
 
     /**
-     * Additional method to clear Trie from redundant nodes.
-     * It's recursively try to delete Node that has no links and contains
-     * no information inside.
-     * @param word string to start from
+     * Records nodes on the way to {@code key} in {@link #path}, so that
+     * {@code path[i]} is reached by the first {@code i} characters.
+     * If there is no node for the key, recorded nodes are cleared.
+     * @param key word or prefix to find
+     * @return true,  if node is found and path is recorded
+     *         false, otherwise
+     */
+    private boolean descend(String key) {
+        if (path.length <= key.length()) {
+            path = new Node[Math.max(path.length * 2, key.length() + 1)];
+        }
+        Node cur = root;
+        path[0] = cur;
+        int depth = 0;
+        while (depth < key.length() && cur != null) {
+            cur = cur.getNext(key.charAt(depth));
+            depth++;
+            path[depth] = cur;
+        }
+        if (cur == null) {
+            Arrays.fill(path, 0, depth + 1, null);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Unlinks redundant nodes on {@link #path} from {@code depth} up and
+     * updates maximal weights of the rest while they change, then clears
+     * the path.
+     * @param key word or prefix the path leads to
+     * @param depth depth of the deepest node to check
+     */
+    private void prune(String key, int depth) {
+        int cur = depth;
+        while (cur > 0 && path[cur].isRedundant()) {
+            cur--;
+            path[cur].setNext(key.charAt(cur), null);
+        }
+        while (cur >= 0 && path[cur].updateMaxWeight()) {
+            cur--;
+        }
+        Arrays.fill(path, 0, key.length() + 1, null);
+    }
+
+    /**
+     * Updates nodes on {@link #path} that are deeper than {@code to} once
+     * their subtrees are done: redundant nodes are unlinked, the rest get
+     * their maximal weights updated.
+     * @param key word the path leads to
+     * @param from depth of the deepest node on the path
+     * @param to depth of the node to stop at
+     */
+    private void unwind(String key, int from, int to) {
+        for (int depth = from; depth > to; --depth) {
+            Node node = path[depth];
+            path[depth] = null;
+            if (node.isRedundant()) {
+                path[depth - 1].setNext(key.charAt(depth - 1), null);
+            } else {
+                node.updateMaxWeight();
+            }
+        }
+    }
+
+    /**
+     * Adds word {@code key} below {@code start}, which is reached by the
+     * first {@code from} characters of the word.
+     * @param start node to descend from
+     * @param key word to add
+     * @param from amount of characters already consumed
+     * @param value weight of the word
+     * @return true,  if word is new
+     *         false, if it is already there
      */
-    private void clear(String word) {
-        if (word.length() > 0 && get(word).isRedundant()) {
-            String subWord = word.substring(0, word.length() - 1);
-            get(subWord).setNext(word.charAt(word.length() - 1), null);
-            clear(subWord);
+    private static boolean insert(Node start, String key, int from,
+                                  int value) {
+        Node cur = start;
+        for (int i = from; i < key.length(); ++i) {
+            char c = key.charAt(i);
+            if (cur.getNext(c) == null) {
+                cur.setNext(c, new Node());
+            }
+            cur = cur.getNext(c);
+        }
+        if (!cur.isEmpty()) {
+            return false;
+        }
+        cur.setValue(value);
+        account(start, key, from, value);
+        return true;
+    }
+
+    /**
+     * Updates maximal weights and word counts on the path of newly added
+     * word.
+     * @param start node reached by the first {@code from} characters
+     * @param key word that was added
+     * @param from amount of characters already consumed
+     * @param weight weight of the word
+     */
+    private static void account(Node start, String key, int from,
+                                int weight) {
+        Node cur = start;
+        cur.raiseMaxWeight(weight);
+        cur.addCount(1);
+        for (int i = from; i < key.length(); ++i) {
+            cur = cur.getNext(key.charAt(i));
+            cur.raiseMaxWeight(weight);
+            cur.addCount(1);
+        }
+    }
+
+    /**
+     * Holder of the pool used by {@link #addAll(Collection)}, created on
+     * first use.
+     */
+    private static final class SharedPool {
+        private static final ForkJoinPool POOL = new ForkJoinPool();
+
+        private SharedPool() {
+        }
+    }
+
+    /**
+     * Inserts words that start with the same character into the subtree
+     * of that character.
+     */
+    private static final class PartitionTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Node subtree;
+        private final transient List<Tuple> tuples;
+
+        PartitionTask(Node subtree, List<Tuple> tuples) {
+            this.subtree = subtree;
+            this.tuples = tuples;
+        }
+
+        @Override
+        protected Integer compute() {
+            int added = 0;
+            for (Tuple tuple : tuples) {
+                if (insert(subtree, tuple.getTerm(), 1, tuple.getWeight())) {
+                    added++;
+                }
+            }
+            return added;
+        }
+    }
+
+    /**
+     * Runs partitions in parallel and counts new words.
+     */
+    private static final class PartitionsTask
+            extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<PartitionTask> tasks;
+
+        PartitionsTask(List<PartitionTask> tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        protected Integer compute() {
+            int added = 0;
+            for (PartitionTask task : invokeAll(tasks)) {
+                added += task.join();
+            }
+            return added;
+        }
+    }
+
+    /**
+     * Moves words below {@code source} to {@code target}.
+     * @param target node of this trie
+     * @param source node of other trie at the same position
+     * @param policy resolves weight of a word that is below both nodes
+     * @return amount of words that were below both nodes
+     */
+    private static int merge(Node target, Node source, MergePolicy policy) {
+        int common = 0;
+        if (!source.isEmpty()) {
+            if (target.isEmpty()) {
+                target.setValue(source.getValue());
+            } else {
+                target.setValue(policy.resolve(target.getValue(),
+                        source.getValue()));
+                common++;
+            }
+        }
+        for (int bits = source.getMask(); bits != 0; bits &= bits - 1) {
+            char c = toChar(Integer.numberOfTrailingZeros(bits));
+            Node child = target.getNext(c);
+            if (child == null) {
+                target.setNext(c, source.getNext(c));
+            } else {
+                common += merge(child, source.getNext(c), policy);
+            }
         }
+        target.updateMaxWeight();
+        target.updateCount();
+        return common;
     }
 
     /**
@@ -0,0 +1,490 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.tries;
+
+import ua.yandex.shad.collections.Queue;
+import ua.yandex.shad.collections.Tuple;
+
+/**
+ * Path-compressed (Patricia) trie.
+ * Chains of nodes with a single child are collapsed into one edge, whose
+ * label is a range of a character array. A new leaf copies only the part
+ * of the word below its parent, and the halves of a split edge share the
+ * array. Edges are split on insert and merged back on delete, so every
+ * inner node except the root either holds a word or branches.
+ */
+public class RadixTrie implements Trie {
+
+    /**
+     * Value that represents that Node don't contains anything.
+     */
+    public static final int DEFAULT_VALUE = -1;
+
+    /**
+     * Label of the root.
+     */
+    private static final char[] NO_CHARS = new char[0];
+
+    /**
+     * Root of the Trie, its label is empty.
+     */
+    private final Node root = new Node(NO_CHARS, 0, 0);
+
+    /**
+     * Enumeration of words in this trie.
+     */
+    private final Traversal<Node> traversal = new NodeTraversal();
+
+    /**
+     * Amount of words stored in trie.
+     */
+    private int size;
+
+    /**
+     * Nested class to represent Node of Trie together with the label of
+     * the edge leading to it.
+     * Children are kept sorted by the first character of their labels.
+     */
+    static class Node {
+
+        /**
+         * Child array shared by all nodes without children.
+         */
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] chars;
+        private int from;
+        private int to;
+        private int value = DEFAULT_VALUE;
+        private int maxWeight = DEFAULT_VALUE;
+        private Node[] children = NO_CHILDREN;
+
+        Node(char[] chars, int from, int to) {
+            this.chars = chars;
+            this.from = from;
+            this.to = to;
+        }
+
+        int length() {
+            return to - from;
+        }
+
+        char charAt(int i) {
+            return chars[from + i];
+        }
+
+        /**
+         * Gets label of the edge leading to the node.
+         * Needed for testing.
+         * @return label as string
+         */
+        String label() {
+            return new String(chars, from, length());
+        }
+
+        /**
+         * Gets length of the array that holds the label.
+         * Needed for testing.
+         * @return length of array
+         */
+        int labelCapacity() {
+            return chars.length;
+        }
+
+        int getValue() {
+            return value;
+        }
+
+        int getMaxWeight() {
+            return maxWeight;
+        }
+
+        Node[] getChildren() {
+            return children;
+        }
+
+        /**
+         * Finds child whose label starts with {@code c}.
+         * @param c first character of label
+         * @return position of child, or {@code -(insertion point) - 1}
+         */
+        int indexOf(char c) {
+            int lo = 0;
+            int hi = children.length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                char midChar = children[mid].charAt(0);
+                if (midChar < c) {
+                    lo = mid + 1;
+                } else if (midChar > c) {
+                    hi = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(lo + 1);
+        }
+
+        /**
+         * Counts leading characters of label that match {@code key}
+         * starting from position {@code start}.
+         * @param key string to match
+         * @param start position in key
+         * @return length of common prefix
+         */
+        int match(CharSequence key, int start) {
+            int n = Math.min(length(), key.length() - start);
+            int i = 0;
+            while (i < n && charAt(i) == key.charAt(start + i)) {
+                i++;
+            }
+            return i;
+        }
+
+        void insertChild(int pos, Node child) {
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, pos);
+            grown[pos] = child;
+            System.arraycopy(children, pos, grown, pos + 1,
+                    children.length - pos);
+            children = grown;
+        }
+
+        void removeChild(int pos) {
+            if (children.length == 1) {
+                children = NO_CHILDREN;
+                return;
+            }
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, pos);
+            System.arraycopy(children, pos + 1, shrunk, pos,
+                    shrunk.length - pos);
+            children = shrunk;
+        }
+
+        void raiseMaxWeight(int weight) {
+            maxWeight = Math.max(maxWeight, weight);
+        }
+
+        void updateMaxWeight() {
+            int max = value;
+            for (Node child : children) {
+                max = Math.max(max, child.maxWeight);
+            }
+            maxWeight = max;
+        }
+
+        /**
+         * Splits the edge after {@code length} characters.
+         * @param length length of label of the new upper node
+         * @return new node, that is parent of this one
+         */
+        Node split(int length) {
+            Node upper = new Node(chars, from, from + length);
+            from += length;
+            upper.children = new Node[] {this};
+            upper.maxWeight = maxWeight;
+            return upper;
+        }
+
+        /**
+         * Prepends label of {@code parent} to the label of this node.
+         * Characters are copied only if the two labels are not already
+         * adjacent ranges of one array.
+         * @param parent node without value and with this node as only child
+         * @return this node
+         */
+        Node absorb(Node parent) {
+            if (parent.chars == chars && parent.to == from) {
+                from = parent.from;
+            } else {
+                char[] merged = new char[parent.length() + length()];
+                System.arraycopy(parent.chars, parent.from, merged, 0,
+                        parent.length());
+                System.arraycopy(chars, from, merged, parent.length(),
+                        length());
+                chars = merged;
+                from = 0;
+                to = merged.length;
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Adds tuple to Trie.
+     * @param t tuple to add
+     */
+    @Override
+    public void add(Tuple t) {
+        String key = t.getTerm();
+        if (insert(root, key, 0, t.getWeight())) {
+            size++;
+        }
+    }
+
+    /**
+     * Checks if Trie contains {@code word}.
+     * @param word actual word to check
+     * @return true,  if yes
+     *         false, otherwise
+     */
+    @Override
+    public boolean contains(String word) {
+        Node cur = root;
+        int i = 0;
+        while (i < word.length()) {
+            int pos = cur.indexOf(word.charAt(i));
+            if (pos < 0) {
+                return false;
+            }
+            cur = cur.children[pos];
+            if (cur.match(word, i) != cur.length()) {
+                return false;
+            }
+            i += cur.length();
+        }
+        return cur.value != DEFAULT_VALUE;
+    }
+
+    /**
+     * Deletes word from Trie.
+     * @param word actual word to delete
+     * @return true,  if success
+     *         false, otherwise
+     */
+    @Override
+    public boolean delete(String word) {
+        if (remove(root, word, 0)) {
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets <b>all</b> words from Trie.
+     * @return instance of Iterable class with desired words
+     * @see Iterable
+     */
+    @Override
+    public Iterable<String> words() {
+        return wordsWithPrefix("");
+    }
+
+    /**
+     * Gets <b>only</b> words that match prefix {@code pref}.
+     * @param pref actual prefix to match
+     * @return instance of Iterable class with desired words
+     */
+    @Override
+    public Iterable<String> wordsWithPrefix(String pref) {
+        return traversal.byLength(pref, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets words that match prefix {@code pref} with at most {@code k}
+     * different lengths.
+     * @param pref actual prefix to match
+     * @param k number of different lengths
+     * @return instance of Iterable class with desired words
+     */
+    @Override
+    public Iterable<String> wordsWithPrefix(String pref, int k) {
+        return traversal.byLength(pref, k);
+    }
+
+    /**
+     * Gets {@code k} words with the biggest weights that match {@code pref}.
+     * @param pref actual prefix to match
+     * @param k amount of words to get
+     * @return instance of Iterable class with words in order of decreasing
+     *         weight
+     */
+    @Override
+    public Iterable<String> topK(String pref, int k) {
+        return traversal.byWeight(pref, k);
+    }
+
+    /**
+     * Gets amount of Trie.
+     * @return count of words in Trie
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Describes layout of RadixTrie to shared traversals.
+     * Frame offset is the amount of label characters already consumed, so
+     * a compressed edge is walked one character per frame and words come
+     * in the same order as from an uncompressed trie.
+     */
+    private class NodeTraversal extends Traversal<Node> {
+
+        @Override
+        Frame<Node> start(String pref) {
+            Node cur = root;
+            int i = 0;
+            while (i < pref.length()) {
+                int pos = cur.indexOf(pref.charAt(i));
+                if (pos < 0) {
+                    return null;
+                }
+                cur = cur.children[pos];
+                int matched = cur.match(pref, i);
+                if (i + matched == pref.length()) {
+                    return Frame.start(cur, matched, pref.length());
+                }
+                if (matched < cur.length()) {
+                    return null;
+                }
+                i += matched;
+            }
+            return Frame.start(cur, cur.length(), pref.length());
+        }
+
+        @Override
+        boolean isWord(Frame<Node> frame) {
+            Node node = frame.getNode();
+            return frame.getOffset() == node.length()
+                    && node.value != DEFAULT_VALUE;
+        }
+
+        @Override
+        int weight(Frame<Node> frame) {
+            return frame.getNode().value;
+        }
+
+        @Override
+        int maxWeight(Frame<Node> frame) {
+            return frame.getNode().maxWeight;
+        }
+
+        @Override
+        void expand(Frame<Node> frame, Queue<Frame<Node>> children) {
+            Node node = frame.getNode();
+            int offset = frame.getOffset();
+            if (offset < node.length()) {
+                children.add(frame.child(node, offset + 1,
+                        node.charAt(offset)));
+                return;
+            }
+            for (Node child : node.children) {
+                children.add(frame.child(child, 1, child.charAt(0)));
+            }
+        }
+    }
+
+    /**
+     * Inserts word into subtree of {@code node}.
+     * @param node node whose label ends right before {@code start}
+     * @param key word to insert
+     * @param start amount of characters already matched
+     * @param weight weight of word
+     * @return true,  if word was added
+     *         false, if it was already in Trie
+     */
+    private boolean insert(Node node, String key, int start, int weight) {
+        if (start == key.length()) {
+            if (node.value != DEFAULT_VALUE) {
+                return false;
+            }
+            node.value = weight;
+            node.raiseMaxWeight(weight);
+            return true;
+        }
+        int pos = node.indexOf(key.charAt(start));
+        if (pos < 0) {
+            char[] label = new char[key.length() - start];
+            key.getChars(start, key.length(), label, 0);
+            Node leaf = new Node(label, 0, label.length);
+            leaf.value = weight;
+            leaf.maxWeight = weight;
+            node.insertChild(-pos - 1, leaf);
+            node.raiseMaxWeight(weight);
+            return true;
+        }
+        Node child = node.children[pos];
+        int matched = child.match(key, start);
+        if (matched < child.length()) {
+            child = child.split(matched);
+            node.children[pos] = child;
+        }
+        if (insert(child, key, start + matched, weight)) {
+            node.raiseMaxWeight(weight);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes word from subtree of {@code node}, pruning emptied leaves
+     * and merging nodes that are left with a single child and no value.
+     * @param node node whose label ends right before {@code start}
+     * @param word word to remove
+     * @param start amount of characters already matched
+     * @return true,  if word was removed
+     *         false, if it was not in Trie
+     */
+    private boolean remove(Node node, String word, int start) {
+        if (start == word.length()) {
+            if (node.value == DEFAULT_VALUE) {
+                return false;
+            }
+            node.value = DEFAULT_VALUE;
+            node.updateMaxWeight();
+            return true;
+        }
+        int pos = node.indexOf(word.charAt(start));
+        if (pos < 0) {
+            return false;
+        }
+        Node child = node.children[pos];
+        if (child.match(word, start) != child.length()
+                || !remove(child, word, start + child.length())) {
+            return false;
+        }
+        if (child.value == DEFAULT_VALUE) {
+            if (child.children.length == 0) {
+                node.removeChild(pos);
+            } else if (child.children.length == 1) {
+                node.children[pos] = child.children[0].absorb(child);
+            }
+        }
+        node.updateMaxWeight();
+        return true;
+    }
+
+    /**
+     * Gets root node of Trie.
+     * Needed for testing.
+     * @return root of Trie
+     */
+    Node getRoot() {
+        return root;
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.tries;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary format of {@link RWayTrie}.
+ * File starts with a header of four ints: magic, version, amount of
+ * words and amount of nodes. It is followed by one record of four ints
+ * per node in breadth-first order: value, maximal weight below the node,
+ * bitmap of children and index of the first child. Children of a node
+ * are consecutive records in order of characters, so a node needs no
+ * other links, and every record has the same length, so a node can be
+ * found by index without reading the records before it. All ints are
+ * big-endian.
+ */
+final class Snapshot {
+
+    /**
+     * First int of every snapshot, "TRIE" in ASCII.
+     */
+    static final int MAGIC = 0x54524945;
+
+    /**
+     * Version of the format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Length of the header in bytes.
+     */
+    static final int HEADER_BYTES = 16;
+
+    /**
+     * Length of a node record in bytes.
+     */
+    static final int RECORD_BYTES = 16;
+
+    /**
+     * Offsets of fields inside a node record.
+     */
+    static final int VALUE = 0;
+    static final int MAX_WEIGHT = 4;
+    static final int MASK = 8;
+    static final int FIRST_CHILD = 12;
+
+    /**
+     * Offsets of fields inside the header.
+     */
+    static final int HEADER_MAGIC = 0;
+    static final int HEADER_VERSION = 4;
+    static final int HEADER_SIZE = 8;
+    static final int HEADER_NODE_COUNT = 12;
+
+    /**
+     * Amount of records written to channel at once.
+     */
+    private static final int RECORDS_PER_WRITE = 4096;
+
+    private Snapshot() {
+    }
+
+    /**
+     * Writes trie with {@code root} to {@code channel}.
+     * @param root root of trie
+     * @param size amount of words in trie
+     * @param channel channel to write to
+     * @throws IOException if channel fails
+     */
+    static void write(RWayTrie.Node root, int size,
+                      WritableByteChannel channel) throws IOException {
+        List<RWayTrie.Node> order = new ArrayList<>();
+        order.add(root);
+        for (int i = 0; i < order.size(); ++i) {
+            RWayTrie.Node node = order.get(i);
+            for (int bits = node.getMask(); bits != 0; bits &= bits - 1) {
+                int c = Integer.numberOfTrailingZeros(bits);
+                order.add(node.getNext((char) (RWayTrie.FIRST_CHAR + c)));
+            }
+        }
+
+        ByteBuffer buffer =
+                ByteBuffer.allocate(RECORDS_PER_WRITE * RECORD_BYTES);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(size)
+                .putInt(order.size());
+        int firstChild = 1;
+        for (RWayTrie.Node node : order) {
+            if (buffer.remaining() < RECORD_BYTES) {
+                flush(buffer, channel);
+            }
+            buffer.putInt(node.getValue()).putInt(node.getMaxWeight())
+                    .putInt(node.getMask()).putInt(firstChild);
+            firstChild += Integer.bitCount(node.getMask());
+        }
+        flush(buffer, channel);
+    }
+
+    /**
+     * Reads trie from {@code channel}. Records are read in one bulk read
+     * and nodes are created bottom-up, each with its final link layout.
+     * @param channel channel to read from
+     * @return restored trie
+     * @throws IOException if channel fails or data is not a valid
+     *         snapshot
+     */
+    static RWayTrie read(ReadableByteChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        fill(header, channel);
+        int size = header.getInt(HEADER_SIZE);
+        int count = checkHeader(header);
+
+        ByteBuffer records = ByteBuffer.allocate(count * RECORD_BYTES);
+        fill(records, channel);
+        RWayTrie.Node[] nodes = new RWayTrie.Node[count];
+        int words = 0;
+        for (int i = count - 1; i >= 0; --i) {
+            int record = i * RECORD_BYTES;
+            int value = records.getInt(record + VALUE);
+            int mask = records.getInt(record + MASK);
+            int first = records.getInt(record + FIRST_CHILD);
+            int degree = Integer.bitCount(mask);
+            if (mask >>> RWayTrie.R != 0 || first <= i
+                    || first + degree > count) {
+                throw new IOException("Corrupted trie snapshot");
+            }
+            nodes[i] = new RWayTrie.Node(value,
+                    records.getInt(record + MAX_WEIGHT), mask, nodes, first);
+            if (value != RWayTrie.DEFAULT_VALUE) {
+                words++;
+            }
+        }
+        if (words != size) {
+            throw new IOException("Corrupted trie snapshot");
+        }
+        return new RWayTrie(nodes[0], size);
+    }
+
+    /**
+     * Validates header of a snapshot.
+     * @param header bytes of header
+     * @return amount of node records
+     * @throws IOException if header is not valid
+     */
+    static int checkHeader(ByteBuffer header) throws IOException {
+        if (header.getInt(HEADER_MAGIC) != MAGIC) {
+            throw new IOException("Not a trie snapshot");
+        }
+        if (header.getInt(HEADER_VERSION) != VERSION) {
+            throw new IOException("Unsupported trie snapshot version");
+        }
+        int count = header.getInt(HEADER_NODE_COUNT);
+        if (count < 1 || header.getInt(HEADER_SIZE) < 0
+                || count > Integer.MAX_VALUE / RECORD_BYTES) {
+            throw new IOException("Corrupted trie snapshot");
+        }
+        return count;
+    }
+
+    private static void flush(ByteBuffer buffer,
+                              WritableByteChannel channel)
+            throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void fill(ByteBuffer buffer, ReadableByteChannel channel)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Truncated trie snapshot");
+            }
+        }
+        buffer.flip();
+    }
+}
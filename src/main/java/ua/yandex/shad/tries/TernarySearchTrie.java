@@ -0,0 +1,498 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.tries;
+
+import ua.yandex.shad.collections.Queue;
+import ua.yandex.shad.collections.Tuple;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Ternary search trie.
+ * Every node holds one character and three links: to nodes with smaller
+ * and bigger characters at the same position and to the next position.
+ * Memory per node does not depend on the alphabet, so any characters can
+ * be stored, and words come in the same order as from {@link RWayTrie}.
+ * Binary trees of positions are not balanced, so sorted input makes them
+ * chains as long as the alphabet. All walks along {@code lo} and
+ * {@code hi} links are therefore iterative: such input makes operations
+ * slower, but never deepens the call stack. Changes reuse one path buffer
+ * and are not reentrant.
+ */
+public class TernarySearchTrie implements Trie {
+
+    /**
+     * Value that represents that Node don't contains anything.
+     */
+    public static final int DEFAULT_VALUE = -1;
+
+    /**
+     * Initial capacity of the path buffer used by delete.
+     */
+    private static final int INITIAL_PATH_CAPACITY = 16;
+
+    /**
+     * Sentinel whose middle link is the actual tree; it stands for the
+     * empty prefix and holds value of the empty word.
+     */
+    private final Node head = new Node('\0');
+
+    /**
+     * Enumeration of words in this trie.
+     */
+    private final Traversal<Node> traversal = new NodeTraversal();
+
+    /**
+     * Amount of words stored in trie.
+     */
+    private int size;
+
+    /**
+     * Nodes visited by the last delete, from the head down; kept to avoid
+     * allocation on every call.
+     */
+    private Node[] path = new Node[INITIAL_PATH_CAPACITY];
+
+    /**
+     * Nested class to represent Node of Trie.
+     */
+    static class Node {
+        private final char c;
+        private Node lo;
+        private Node eq;
+        private Node hi;
+        private int value = DEFAULT_VALUE;
+
+        /**
+         * The biggest value of this node and words below it through
+         * {@code eq}.
+         */
+        private int maxWeight = DEFAULT_VALUE;
+
+        /**
+         * The biggest {@code maxWeight} in binary tree made of this node and
+         * its {@code lo} and {@code hi} descendants.
+         */
+        private int treeMax = DEFAULT_VALUE;
+
+        Node(char c) {
+            this.c = c;
+        }
+
+        char getChar() {
+            return c;
+        }
+
+        Node getLo() {
+            return lo;
+        }
+
+        Node getEq() {
+            return eq;
+        }
+
+        Node getHi() {
+            return hi;
+        }
+
+        int getValue() {
+            return value;
+        }
+
+        int getMaxWeight() {
+            return maxWeight;
+        }
+
+        /**
+         * Takes into account a new word in binary tree of this node.
+         * @param weight weight of the word
+         */
+        private void raiseTree(int weight) {
+            treeMax = Math.max(treeMax, weight);
+        }
+
+        /**
+         * Takes into account a new word ending here or below {@code eq}.
+         * @param weight weight of the word
+         */
+        private void raise(int weight) {
+            maxWeight = Math.max(maxWeight, weight);
+            raiseTree(weight);
+        }
+
+        void update() {
+            maxWeight = Math.max(value, treeMax(eq));
+            treeMax = Math.max(maxWeight, Math.max(treeMax(lo),
+                    treeMax(hi)));
+        }
+
+        private static int treeMax(Node node) {
+            if (node == null) {
+                return DEFAULT_VALUE;
+            }
+            return node.treeMax;
+        }
+    }
+
+    /**
+     * Adds tuple to Trie.
+     * @param t tuple to add
+     */
+    @Override
+    public void add(Tuple t) {
+        String key = t.getTerm();
+        if (key.isEmpty()) {
+            if (head.value == DEFAULT_VALUE) {
+                head.value = t.getWeight();
+                size++;
+            }
+        } else if (!contains(key)) {
+            put(key, t.getWeight());
+        }
+        head.update();
+    }
+
+    /**
+     * Checks if Trie contains {@code word}.
+     * @param word actual word to check
+     * @return true,  if yes
+     *         false, otherwise
+     */
+    @Override
+    public boolean contains(String word) {
+        Node node = get(word);
+        return node != null && node.value != DEFAULT_VALUE;
+    }
+
+    /**
+     * Deletes word from Trie.
+     * @param word actual word to delete
+     * @return true,  if success
+     *         false, otherwise
+     */
+    @Override
+    public boolean delete(String word) {
+        int oldSize = size;
+        if (word.isEmpty()) {
+            if (head.value != DEFAULT_VALUE) {
+                head.value = DEFAULT_VALUE;
+                size--;
+            }
+        } else {
+            remove(word);
+        }
+        head.update();
+        return size != oldSize;
+    }
+
+    /**
+     * Gets <b>all</b> words from Trie.
+     * @return instance of Iterable class with desired words
+     * @see Iterable
+     */
+    @Override
+    public Iterable<String> words() {
+        return wordsWithPrefix("");
+    }
+
+    /**
+     * Gets <b>only</b> words that match prefix {@code pref}.
+     * @param pref actual prefix to match
+     * @return instance of Iterable class with desired words
+     */
+    @Override
+    public Iterable<String> wordsWithPrefix(String pref) {
+        return traversal.byLength(pref, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets words that match prefix {@code pref} with at most {@code k}
+     * different lengths.
+     * @param pref actual prefix to match
+     * @param k number of different lengths
+     * @return instance of Iterable class with desired words
+     */
+    @Override
+    public Iterable<String> wordsWithPrefix(String pref, int k) {
+        return traversal.byLength(pref, k);
+    }
+
+    /**
+     * Gets {@code k} words with the biggest weights that match {@code pref}.
+     * @param pref actual prefix to match
+     * @param k amount of words to get
+     * @return instance of Iterable class with words in order of decreasing
+     *         weight
+     */
+    @Override
+    public Iterable<String> topK(String pref, int k) {
+        return traversal.byWeight(pref, k);
+    }
+
+    /**
+     * Gets amount of Trie.
+     * @return count of words in Trie
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Describes layout of TernarySearchTrie to shared traversals.
+     * Frame node is the node of the last character of the word; positions
+     * one character below are all nodes of the binary tree hanging from its
+     * {@code eq} link, taken in order.
+     */
+    private class NodeTraversal extends Traversal<Node> {
+
+        @Override
+        Frame<Node> start(String pref) {
+            Node node = get(pref);
+            if (node == null) {
+                return null;
+            }
+            return Frame.start(node, 0, pref.length());
+        }
+
+        @Override
+        boolean isWord(Frame<Node> frame) {
+            return frame.getNode().value != DEFAULT_VALUE;
+        }
+
+        @Override
+        int weight(Frame<Node> frame) {
+            return frame.getNode().value;
+        }
+
+        @Override
+        int maxWeight(Frame<Node> frame) {
+            return frame.getNode().maxWeight;
+        }
+
+        @Override
+        void expand(Frame<Node> frame, Queue<Frame<Node>> children) {
+            Node node = frame.getNode().eq;
+            if (node == null) {
+                return;
+            }
+            Deque<Node> pending = new ArrayDeque<>();
+            while (node != null || !pending.isEmpty()) {
+                while (node != null) {
+                    pending.push(node);
+                    node = node.lo;
+                }
+                node = pending.pop();
+                children.add(frame.child(node, 0, node.c));
+                node = node.hi;
+            }
+        }
+    }
+
+    /**
+     * Finds node of the last character of {@code key}.
+     * @param key string to match
+     * @return desired node, head for empty key, or null if there is none
+     */
+    private Node get(String key) {
+        Node cur = head;
+        for (int d = 0; d < key.length() && cur != null; ++d) {
+            char c = key.charAt(d);
+            cur = cur.eq;
+            while (cur != null && c != cur.c) {
+                if (c < cur.c) {
+                    cur = cur.lo;
+                } else {
+                    cur = cur.hi;
+                }
+            }
+        }
+        return cur;
+    }
+
+    /**
+     * Adds word that is not in Trie yet.
+     * Maximal weights only grow, so they are raised on the way down and no
+     * node has to be revisited.
+     * @param key word to add, not empty
+     * @param weight weight of the word
+     */
+    private void put(String key, int weight) {
+        Node parent = head;
+        Node cur = head.eq;
+        for (int d = 0; d < key.length(); ++d) {
+            char c = key.charAt(d);
+            boolean side = false;
+            while (cur != null && c != cur.c) {
+                cur.raiseTree(weight);
+                parent = cur;
+                side = true;
+                if (c < cur.c) {
+                    cur = cur.lo;
+                } else {
+                    cur = cur.hi;
+                }
+            }
+            if (cur == null) {
+                cur = new Node(c);
+                link(parent, cur, side);
+            }
+            if (d == key.length() - 1) {
+                cur.value = weight;
+            }
+            cur.raise(weight);
+            parent = cur;
+            cur = cur.eq;
+        }
+        size++;
+    }
+
+    /**
+     * Links new {@code child} below {@code parent}.
+     * @param parent node found on the way to the child
+     * @param child new node
+     * @param side whether child is at the same position as parent, not
+     *             at the next one
+     */
+    private static void link(Node parent, Node child, boolean side) {
+        if (!side) {
+            parent.eq = child;
+        } else if (child.c < parent.c) {
+            parent.lo = child;
+        } else {
+            parent.hi = child;
+        }
+    }
+
+    /**
+     * Removes non-empty word from Trie.
+     * Nodes on the way are recorded in {@link #path}; then, from the bottom
+     * up, a node left without value and without middle link is unlinked by
+     * joining its side subtrees, and the rest are updated.
+     * @param word word to remove
+     */
+    private void remove(String word) {
+        int top = 0;
+        path[top++] = head;
+        Node cur = head.eq;
+        for (int d = 0; d < word.length() && cur != null; ++d) {
+            char c = word.charAt(d);
+            while (cur != null && c != cur.c) {
+                top = push(top, cur);
+                if (c < cur.c) {
+                    cur = cur.lo;
+                } else {
+                    cur = cur.hi;
+                }
+            }
+            if (cur != null) {
+                top = push(top, cur);
+                if (d < word.length() - 1) {
+                    cur = cur.eq;
+                }
+            }
+        }
+        if (cur != null && cur.value != DEFAULT_VALUE) {
+            cur.value = DEFAULT_VALUE;
+            size--;
+            for (int i = top - 1; i > 0; --i) {
+                Node node = path[i];
+                if (node.value == DEFAULT_VALUE && node.eq == null) {
+                    replace(path[i - 1], node, join(node.lo, node.hi));
+                } else {
+                    node.update();
+                }
+            }
+        }
+        Arrays.fill(path, 0, top, null);
+    }
+
+    /**
+     * Records {@code node} in {@link #path}, growing it if needed.
+     * @param top amount of recorded nodes
+     * @param node node to record
+     * @return new amount of recorded nodes
+     */
+    private int push(int top, Node node) {
+        if (top == path.length) {
+            path = Arrays.copyOf(path, path.length * 2);
+        }
+        path[top] = node;
+        return top + 1;
+    }
+
+    /**
+     * Replaces link from {@code parent} to {@code child}.
+     * @param parent parent node
+     * @param child current child
+     * @param replacement new child or null
+     */
+    private static void replace(Node parent, Node child, Node replacement) {
+        if (parent.lo == child) {
+            parent.lo = replacement;
+        } else if (parent.hi == child) {
+            parent.hi = replacement;
+        } else {
+            parent.eq = replacement;
+        }
+    }
+
+    /**
+     * Joins two binary trees, where all characters of {@code lo} are less
+     * than all characters of {@code hi}, by hanging {@code hi} on the
+     * rightmost node of {@code lo}. Nodes on the way only gain words, so
+     * their maximal weights are raised without revisiting.
+     * @param lo tree with smaller characters
+     * @param hi tree with bigger characters
+     * @return root of joined tree
+     */
+    private static Node join(Node lo, Node hi) {
+        if (lo == null) {
+            return hi;
+        }
+        if (hi == null) {
+            return lo;
+        }
+        Node cur = lo;
+        cur.raiseTree(hi.treeMax);
+        while (cur.hi != null) {
+            cur = cur.hi;
+            cur.raiseTree(hi.treeMax);
+        }
+        cur.hi = hi;
+        return lo;
+    }
+
+    /**
+     * Gets sentinel node of Trie.
+     * Needed for testing.
+     * @return sentinel whose middle link is the tree
+     */
+    Node getHead() {
+        return head;
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.tries;
+
+import ua.yandex.shad.collections.ChunkedQueue;
+import ua.yandex.shad.collections.Queue;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Word enumeration shared by trie implementations.
+ * Implementation describes its layout through frames: where a prefix
+ * leads, whether a position ends a word, and which positions lie one
+ * character below. Traversals visit every position once, carry node
+ * references instead of walking from the root, and spell a word only
+ * when it is returned.
+ * @param <N> type of trie nodes
+ */
+abstract class Traversal<N> {
+
+    /**
+     * Initial capacity of the heap used by best-first search.
+     */
+    private static final int INITIAL_HEAP_CAPACITY = 16;
+
+    /**
+     * Finds position reached by {@code pref}.
+     * @param pref actual prefix
+     * @return first frame or null if no word starts with {@code pref}
+     */
+    abstract Frame<N> start(String pref);
+
+    /**
+     * Checks if position of {@code frame} ends a word.
+     * @param frame actual position
+     * @return true,  if word ends here
+     *         false, otherwise
+     */
+    abstract boolean isWord(Frame<N> frame);
+
+    /**
+     * Gets weight of word ending at {@code frame}.
+     * @param frame position of a word
+     * @return weight of word
+     */
+    abstract int weight(Frame<N> frame);
+
+    /**
+     * Gets the biggest weight of words below {@code frame}, including the
+     * word ending at the frame itself.
+     * @param frame actual position
+     * @return upper bound of weights
+     */
+    abstract int maxWeight(Frame<N> frame);
+
+    /**
+     * Adds positions one character below {@code frame} to {@code children}
+     * in alphabetical order.
+     * @param frame actual position
+     * @param children queue to add frames to
+     */
+    abstract void expand(Frame<N> frame, Queue<Frame<N>> children);
+
+    /**
+     * Enumerates words that match {@code pref} in order of length, with
+     * at most {@code limit} different lengths. Traversal is breadth-first
+     * and stops expanding positions as soon as the last needed level is
+     * reached, so deeper levels are never touched.
+     * @param pref actual prefix to match
+     * @param limit number of different lengths
+     * @return instance of Iterable with words
+     */
+    Iterable<String> byLength(final String pref, final int limit) {
+        return new Iterable<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new ByLengthIterator(pref, limit);
+            }
+        };
+    }
+
+    /**
+     * Enumerates {@code k} heaviest words that match {@code pref}.
+     * Search is best-first: every position is ranked by the maximal weight
+     * below it, so only positions on the way to the answers are expanded.
+     * @param pref actual prefix to match
+     * @param k amount of words to get
+     * @return instance of Iterable with words in order of decreasing weight
+     */
+    Iterable<String> byWeight(final String pref, final int k) {
+        return new Iterable<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new ByWeightIterator(pref, k);
+            }
+        };
+    }
+
+    /**
+     * Builds words of frames by following parent links.
+     * Characters of the prefix are written once and reused for every word.
+     */
+    private static class Speller {
+        private final int prefixLength;
+        private char[] buffer;
+
+        Speller(String pref) {
+            prefixLength = pref.length();
+            buffer = pref.toCharArray();
+        }
+
+        <N> String spell(Frame<N> frame) {
+            int depth = frame.getDepth();
+            if (buffer.length < depth) {
+                char[] grown = new char[Math.max(buffer.length * 2, depth)];
+                System.arraycopy(buffer, 0, grown, 0, prefixLength);
+                buffer = grown;
+            }
+            for (Frame<N> f = frame; f.getParent() != null;
+                 f = f.getParent()) {
+                buffer[f.getDepth() - 1] = f.getLabel();
+            }
+            return new String(buffer, 0, depth);
+        }
+    }
+
+    private class ByLengthIterator implements Iterator<String> {
+        private final int limit;
+        private final Speller speller;
+        private Queue<Frame<N>> queue = new ChunkedQueue<>();
+        private String next;
+        private int lengths;
+        private int lastDepth = -1;
+
+        ByLengthIterator(String pref, int limit) {
+            this.limit = limit;
+            speller = new Speller(pref);
+            Frame<N> first = start(pref);
+            if (first != null && limit > 0) {
+                queue.add(first);
+                updateNext();
+            }
+        }
+
+        private void updateNext() {
+            next = null;
+            while (!queue.isEmpty()) {
+                Frame<N> frame = queue.poll();
+                if (lengths == limit && frame.getDepth() > lastDepth) {
+                    queue = new ChunkedQueue<>();
+                    break;
+                }
+                boolean word = isWord(frame);
+                if (word && frame.getDepth() != lastDepth) {
+                    lengths++;
+                    lastDepth = frame.getDepth();
+                }
+                if (lengths < limit) {
+                    expand(frame, queue);
+                }
+                if (word) {
+                    next = speller.spell(frame);
+                    break;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String current = next;
+            updateNext();
+            return current;
+        }
+    }
+
+    /**
+     * Element of best-first search: either all words below a position
+     * ranked by their maximal weight, or a single word ranked by its own
+     * weight.
+     */
+    private final class Candidate {
+        private final Frame<N> frame;
+        private final int weight;
+        private final boolean word;
+
+        Candidate(Frame<N> frame, int weight, boolean word) {
+            this.frame = frame;
+            this.weight = weight;
+            this.word = word;
+        }
+    }
+
+    /**
+     * Orders candidates by decreasing weight. On equal weight words go
+     * before subtrees and shorter words before longer ones.
+     */
+    private final class ByWeight implements Comparator<Candidate> {
+        @Override
+        public int compare(Candidate a, Candidate b) {
+            if (a.weight != b.weight) {
+                return Integer.compare(b.weight, a.weight);
+            }
+            if (a.word != b.word) {
+                return Boolean.compare(b.word, a.word);
+            }
+            return Integer.compare(a.frame.getDepth(), b.frame.getDepth());
+        }
+    }
+
+    private class ByWeightIterator implements Iterator<String> {
+        private final PriorityQueue<Candidate> heap =
+                new PriorityQueue<>(INITIAL_HEAP_CAPACITY, new ByWeight());
+        private final Queue<Frame<N>> children = new ChunkedQueue<>();
+        private final Speller speller;
+        private String next;
+        private int left;
+
+        ByWeightIterator(String pref, int k) {
+            speller = new Speller(pref);
+            left = k;
+            Frame<N> first = start(pref);
+            if (first != null && left > 0) {
+                heap.add(new Candidate(first, maxWeight(first), false));
+                updateNext();
+            }
+        }
+
+        private void updateNext() {
+            next = null;
+            while (!heap.isEmpty()) {
+                Candidate candidate = heap.poll();
+                if (candidate.word) {
+                    next = speller.spell(candidate.frame);
+                    break;
+                }
+                Frame<N> frame = candidate.frame;
+                if (isWord(frame)) {
+                    heap.add(new Candidate(frame, weight(frame), true));
+                }
+                expand(frame, children);
+                while (!children.isEmpty()) {
+                    Frame<N> child = children.poll();
+                    heap.add(new Candidate(child, maxWeight(child), false));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String current = next;
+            left--;
+            if (left > 0) {
+                updateNext();
+            } else {
+                next = null;
+            }
+            return current;
+        }
+    }
+}
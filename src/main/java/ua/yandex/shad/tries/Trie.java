@@ -65,6 +65,27 @@ public interface Trie {
      */
     Iterable<String> wordsWithPrefix(String pref);
 
+    /**
+     * Gets words from trie, that matches {@code pref}, with at most
+     * {@code k} different lengths.
+     * Words are ordered by length, so these are the shortest matches.
+     * @param pref actual prefix to match
+     * @param k number of different lengths
+     * @return instance of Iterable interface
+     * @see Iterable
+     */
+    Iterable<String> wordsWithPrefix(String pref, int k);
+
+    /**
+     * Gets {@code k} words with the biggest weights, that matches
+     * {@code pref}.
+     * @param pref actual prefix to match
+     * @param k amount of words to get
+     * @return instance of Iterable interface, heaviest words first
+     * @see Iterable
+     */
+    Iterable<String> topK(String pref, int k);
+
     /**
      * Gets amount of words in trie.
      * @return actual size
@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.autocomplete;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class ByteBufferReaderTest {
+
+    //<editor-fold desc="Tests for read(char[] cbuf, int off, int len)">
+    @Test
+    public void testRead_emptyBuffer_endOfStream() {
+        ByteBufferReader reader =
+                new ByteBufferReader(ByteBuffer.allocate(0));
+
+        assertEquals(-1, reader.read(new char[4], 0, 4));
+    }
+
+    @Test
+    public void testRead_multiByteCharacters_decoded() {
+        ByteBuffer bytes = ByteBuffer.wrap(
+                "яблуко one".getBytes(StandardCharsets.UTF_8));
+        char[] chars = new char[16];
+
+        int read = new ByteBufferReader(bytes).read(chars, 0, chars.length);
+
+        assertEquals("яблуко one", new String(chars, 0, read));
+        assertEquals(0, bytes.position());
+    }
+
+    @Test
+    public void testRead_smallTarget_readInParts() {
+        ByteBufferReader reader = new ByteBufferReader(ByteBuffer.wrap(
+                "apple".getBytes(StandardCharsets.UTF_8)));
+        char[] chars = new char[3];
+
+        assertEquals(3, reader.read(chars, 0, 3));
+        assertEquals(2, reader.read(chars, 0, 3));
+        assertEquals(-1, reader.read(chars, 0, 3));
+    }
+
+    @Test
+    public void testRead_surrogatePairIntoOneChar_readInParts() {
+        String text = "a\uD83D\uDE00b";
+        ByteBufferReader reader = new ByteBufferReader(ByteBuffer.wrap(
+                text.getBytes(StandardCharsets.UTF_8)));
+        char[] chars = new char[4];
+
+        for (int i = 0; i < text.length(); ++i) {
+            assertEquals(1, reader.read(chars, i, 1));
+        }
+
+        assertEquals(text, new String(chars));
+        assertEquals(-1, reader.read(chars, 0, 1));
+    }
+
+    @Test
+    public void testRead_surrogatePairIntoTwoChars_readAtOnce() {
+        ByteBufferReader reader = new ByteBufferReader(ByteBuffer.wrap(
+                "\uD83D\uDE00".getBytes(StandardCharsets.UTF_8)));
+        char[] chars = new char[2];
+
+        assertEquals(2, reader.read(chars, 0, 2));
+        assertEquals(-1, reader.read(chars, 0, 2));
+    }
+
+    @Test
+    public void testRead_malformedInput_replaced() {
+        ByteBuffer bytes = ByteBuffer.wrap(new byte[]{'a', (byte) 0xC3});
+        char[] chars = new char[4];
+
+        int read = new ByteBufferReader(bytes).read(chars, 0, chars.length);
+
+        assertEquals("a�", new String(chars, 0, read));
+    }
+    //</editor-fold>
+}
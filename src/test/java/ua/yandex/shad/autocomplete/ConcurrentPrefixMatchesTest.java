@@ -0,0 +1,201 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.autocomplete;
+
+import static org.junit.Assert.*;
+import static ua.yandex.shad.utils.StringIterableUtils.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class ConcurrentPrefixMatchesTest {
+
+    //<editor-fold desc="Tests for load">
+    @Test
+    public void testLoad_strings_published() {
+        ConcurrentPrefixMatches matches = new ConcurrentPrefixMatches();
+
+        int size = matches.load("one two", "three");
+
+        assertEquals(3, size);
+        assertTrue(matches.contains("three"));
+        assertArrayEquals(new String[] {"three"},
+                toArray(matches.wordsWithPrefix("thr")));
+    }
+
+    @Test
+    public void testLoad_reader_published() throws IOException {
+        ConcurrentPrefixMatches matches = new ConcurrentPrefixMatches();
+
+        matches.load(new StringReader("apple apply ape"));
+
+        assertArrayEquals(new String[] {"apple", "apply"},
+                toArray(matches.wordsWithPrefix("app", 5)));
+        assertEquals(3, matches.size());
+    }
+
+    @Test
+    public void testLoadParallel_strings_published() {
+        ConcurrentPrefixMatches matches = new ConcurrentPrefixMatches();
+
+        matches.loadParallel("one two three");
+
+        assertEquals(3, matches.size());
+        assertArrayEquals(new String[] {"three"},
+                toArray(matches.topK("thr", 1)));
+    }
+
+    @Test
+    public void testLoad_wordOutOfAlphabet_batchRolledBack() {
+        ConcurrentPrefixMatches matches = new ConcurrentPrefixMatches();
+        matches.load("one two");
+        PrefixMatches before = matches.snapshot();
+
+        try {
+            matches.load("three four", "Five", "six");
+            fail("Expected exception");
+        } catch (ArrayIndexOutOfBoundsException e) {
+            assertSame(before, matches.snapshot());
+        }
+        matches.load("seven");
+
+        assertFalse(matches.contains("three"));
+        assertFalse(matches.contains("four"));
+        assertTrue(matches.contains("seven"));
+        assertEquals(3, matches.size());
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for delete(String word)">
+    @Test
+    public void testDelete_hitWord_published() {
+        ConcurrentPrefixMatches matches = new ConcurrentPrefixMatches();
+        matches.load("one two three");
+
+        assertTrue(matches.delete("two"));
+        assertFalse(matches.contains("two"));
+        assertEquals(2, matches.size());
+    }
+
+    @Test
+    public void testDelete_missWord_negativeResult() {
+        ConcurrentPrefixMatches matches = new ConcurrentPrefixMatches();
+        matches.load("one two three");
+
+        assertFalse(matches.delete("four"));
+        assertEquals(3, matches.size());
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for snapshot isolation">
+    @Test
+    public void testWordsWithPrefix_writeAfterQuery_oldVersionKept() {
+        ConcurrentPrefixMatches matches = new ConcurrentPrefixMatches();
+        matches.load("apple apply");
+
+        Iterable<String> before = matches.wordsWithPrefix("app", 5);
+        matches.load("appeal");
+        matches.delete("apple");
+
+        assertArrayEquals(new String[] {"apple", "apply"}, toArray(before));
+        assertArrayEquals(new String[] {"apply", "appeal"},
+                toArray(matches.wordsWithPrefix("app", 5)));
+    }
+
+    @Test
+    public void testSnapshot_writeAfterSnapshot_oldVersionKept() {
+        ConcurrentPrefixMatches matches = new ConcurrentPrefixMatches();
+        matches.load("apple apply");
+
+        PrefixMatches snapshot = matches.snapshot();
+        matches.load("appeal");
+        matches.delete("apple");
+
+        assertEquals(2, snapshot.size());
+        assertTrue(snapshot.contains("apple"));
+        assertFalse(snapshot.contains("appeal"));
+        assertEquals(2, matches.snapshot().size());
+        assertTrue(matches.snapshot().contains("appeal"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSnapshot_load_exception() {
+        ConcurrentPrefixMatches matches = new ConcurrentPrefixMatches();
+        matches.load("apple apply");
+
+        matches.snapshot().load("appeal");
+    }
+
+    @Test
+    public void testWordsWithPrefix_concurrentWriter_wholeBatchesSeen()
+            throws InterruptedException {
+        final ConcurrentPrefixMatches matches =
+                new ConcurrentPrefixMatches();
+        final int batches = 50;
+        final AtomicReference<String> failure = new AtomicReference<>();
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < batches; ++i) {
+                    String prefix = "word" + (char) ('a' + i % 26);
+                    matches.load(prefix + "x", prefix + "y");
+                }
+            }
+        });
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 2; ++r) {
+            readers.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    while (matches.size() < batches) {
+                        int size = toArray(
+                                matches.wordsWithPrefix("word", 2)).length;
+                        if (size % 2 != 0) {
+                            failure.set("Odd amount of words: " + size);
+                        }
+                    }
+                }
+            }));
+        }
+
+        for (Thread reader : readers) {
+            reader.start();
+        }
+        writer.start();
+        writer.join();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertNull(failure.get());
+        assertEquals(2 * 26, matches.size());
+    }
+    //</editor-fold>
+}
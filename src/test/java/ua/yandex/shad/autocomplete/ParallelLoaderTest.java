@@ -0,0 +1,117 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.autocomplete;
+
+import static org.junit.Assert.*;
+import static ua.yandex.shad.utils.StringIterableUtils.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import ua.yandex.shad.tries.RWayTrie;
+
+public class ParallelLoaderTest {
+
+    //<editor-fold desc="Set up tests">
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for ParallelLoader(int minLength, ...)">
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_nonPositiveChunk_exceptionThrown() {
+        new ParallelLoader(3, 0);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for load(Path path, ForkJoinPool pool)">
+    @Test
+    public void testLoad_emptyFile_emptyTrie() throws IOException {
+        RWayTrie trie = new ParallelLoader(3, 4).load(write(""), pool);
+
+        assertEquals(0, trie.size());
+    }
+
+    @Test
+    public void testLoad_chunksSmallerThanWords_wordsNotBroken()
+            throws IOException {
+        String[] expectedResult = {"one", "apple", "orange", "oneapple"};
+
+        RWayTrie trie = new ParallelLoader(3, 2)
+                .load(write("one on\tapple\norange  oneapple one"), pool);
+
+        assertArrayEquals(expectedResult, toArray(trie.words()));
+        assertEquals(4, trie.size());
+    }
+
+    @Test
+    public void testLoad_randomText_sameAsSequentialLoad()
+            throws IOException {
+        Random random = new Random(17);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20000; ++i) {
+            for (int j = random.nextInt(9); j >= 0; --j) {
+                text.append((char) ('a' + random.nextInt(RWayTrie.R)));
+            }
+            text.append(" \n\t".charAt(random.nextInt(3)));
+        }
+        PrefixMatches sequential = new PrefixMatches();
+        sequential.load(new StringReader(text.toString()));
+
+        RWayTrie trie = new ParallelLoader(3, 1000)
+                .load(write(text.toString()), pool);
+
+        assertEquals(sequential.size(), trie.size());
+        assertArrayEquals(toArray(sequential.wordsWithPrefix("abc", 100)),
+                toArray(trie.wordsWithPrefix("abc", 100)));
+        assertArrayEquals(toArray(sequential.topK("abc", 10)),
+                toArray(trie.topK("abc", 10)));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Some additional methods">
+    private Path write(String text) throws IOException {
+        Path path = folder.newFile().toPath();
+        Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+    //</editor-fold>
+}
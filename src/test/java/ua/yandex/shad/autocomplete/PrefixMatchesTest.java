@@ -28,15 +28,24 @@ import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 import static ua.yandex.shad.utils.StringIterableUtils.*;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
 import org.mockito.Matchers;
 import org.mockito.runners.MockitoJUnitRunner;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
 
+import ua.yandex.shad.tries.RWayTrie;
 import ua.yandex.shad.tries.Trie;
 import ua.yandex.shad.collections.Tuple;
 
@@ -46,6 +55,8 @@ public class PrefixMatchesTest {
     //<editor-fold desc="Set up tests">
     @Mock private Trie trie;
 
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
     @InjectMocks private final PrefixMatches prefixMatches = new PrefixMatches();
 
     private final Tuple oneTuple = new Tuple("one", 3);
@@ -138,6 +149,100 @@ public class PrefixMatchesTest {
     }
     //</editor-fold>
 
+    //<editor-fold desc="Tests for loadParallel(String... strings)">
+    @Test
+    public void testLoadParallel_notRWayTrie_longWordsAdded() {
+        prefixMatches.loadParallel("one on", "apple");
+
+        verify(trie, times(1)).add(eq(oneTuple));
+        verify(trie, times(1)).add(eq(appleTuple));
+        verify(trie, times(2)).add(any(Tuple.class));
+    }
+
+    @Test
+    public void testLoadParallel_rWayTrie_sameAsLoad() {
+        PrefixMatches expected = new PrefixMatches();
+        expected.load("one on apple", "onedrive oneapple one");
+        PrefixMatches actual = new PrefixMatches();
+
+        int actualSize =
+                actual.loadParallel("one on apple", "onedrive oneapple one");
+
+        assertEquals(expected.size(), actualSize);
+        assertArrayEquals(toArray(expected.wordsWithPrefix("one")),
+                toArray(actual.wordsWithPrefix("one")));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for load(Reader reader)">
+    @Test
+    public void testLoadReader_emptyText_nothingAdded() throws IOException {
+        prefixMatches.load(new StringReader(""));
+
+        verify(trie, never()).add(Matchers.any(Tuple.class));
+    }
+
+    @Test
+    public void testLoadReader_severalLines_longWordsAdded()
+            throws IOException {
+        prefixMatches.load(new StringReader("one on\n\tapple\r\n"));
+
+        verify(trie, times(1)).add(eq(oneTuple));
+        verify(trie, times(1)).add(eq(appleTuple));
+        verify(trie, times(2)).add(any(Tuple.class));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for load(Path path)">
+    @Test
+    public void testLoadPath_file_wordsAdded() throws IOException {
+        Path path = folder.newFile().toPath();
+        Files.write(path, "one apple\nonedrive on\n"
+                .getBytes(StandardCharsets.UTF_8));
+
+        prefixMatches.load(path);
+
+        verify(trie, times(1)).add(eq(oneTuple));
+        verify(trie, times(1)).add(eq(appleTuple));
+        verify(trie, times(1)).add(eq(new Tuple("onedrive", 8)));
+        verify(trie, times(3)).add(any(Tuple.class));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for load(Path path, ForkJoinPool pool)">
+    @Test
+    public void testLoadPathInPool_notRWayTrie_wordsAdded() throws IOException {
+        Path path = folder.newFile().toPath();
+        Files.write(path, "one on\napple one\n"
+                .getBytes(StandardCharsets.UTF_8));
+        ForkJoinPool pool = new ForkJoinPool(2);
+
+        prefixMatches.load(path, pool);
+        pool.shutdown();
+
+        verify(trie, times(1)).add(eq(oneTuple));
+        verify(trie, times(1)).add(eq(appleTuple));
+        verify(trie, times(2)).add(any(Tuple.class));
+    }
+
+    @Test
+    public void testLoadPathInPool_rWayTrie_merged() throws IOException {
+        Path path = folder.newFile().toPath();
+        Files.write(path, "one on\napple one\n"
+                .getBytes(StandardCharsets.UTF_8));
+        PrefixMatches matches = new PrefixMatches();
+        matches.load("onedrive");
+        ForkJoinPool pool = new ForkJoinPool(2);
+
+        int actualSize = matches.load(path, pool);
+        pool.shutdown();
+
+        assertEquals(3, actualSize);
+        assertTrue(matches.contains("apple"));
+        assertTrue(matches.contains("onedrive"));
+    }
+    //</editor-fold>
+
     //<editor-fold desc="Tests for contains(String word)">
     @Test
     public void testContains_hitWord_positiveResult() {
@@ -190,7 +295,8 @@ public class PrefixMatchesTest {
     public void testWordsWithPrefix_result() {
         String pref = "one";
         String[] expectedResult = {"one", "oneapple", "onedrive"};
-        when(trie.wordsWithPrefix(eq("one"))).thenReturn(oneStringIterable);
+        when(trie.wordsWithPrefix(eq("one"), eq(3)))
+                .thenReturn(oneStringIterable);
 
         String[] actualResult = toArray(prefixMatches.wordsWithPrefix(pref));
 
@@ -208,11 +314,12 @@ public class PrefixMatchesTest {
 
     //<editor-fold desc="Tests for wordsWithPrefix(String pref, int k)">
     @Test
-    public void testWordsWithPrefixWithK_kEqualsOne_result() {
+    public void testWordsWithPrefixWithK_result() {
         String pref = "one";
-        String[] expectedResult = {"one"};
-        int k = 1;
-        when(trie.wordsWithPrefix(eq("one"))).thenReturn(oneStringIterable);
+        String[] expectedResult = {"one", "oneapple", "onedrive"};
+        int k = 2;
+        when(trie.wordsWithPrefix(eq("one"), eq(2)))
+                .thenReturn(oneStringIterable);
 
         String[] actualResult = toArray(prefixMatches.wordsWithPrefix(pref, k));
 
@@ -220,15 +327,14 @@ public class PrefixMatchesTest {
     }
 
     @Test
-    public void testWordsWithPrefixWithK_kEqualsTwo_result() {
+    public void testWordsWithPrefixWithK_limitPassedToTrie() {
         String pref = "one";
-        String[] expectedResult = {"one", "oneapple", "onedrive"};
-        int k = 2;
-        when(trie.wordsWithPrefix(eq("one"))).thenReturn(oneStringIterable);
+        int k = 1;
 
-        String[] actualResult = toArray(prefixMatches.wordsWithPrefix(pref, k));
+        prefixMatches.wordsWithPrefix(pref, k);
 
-        assertArrayEquals(expectedResult, actualResult);
+        verify(trie, times(1)).wordsWithPrefix(eq("one"), eq(1));
+        verifyNoMoreInteractions(trie);
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -240,6 +346,176 @@ public class PrefixMatchesTest {
     }
     //</editor-fold>
 
+    //<editor-fold desc="Tests for topK(String pref, int k)">
+    @Test
+    public void testTopK_result() {
+        String pref = "one";
+        String[] expectedResult = {"one", "oneapple", "onedrive"};
+        int k = 3;
+        when(trie.topK(eq("one"), eq(3))).thenReturn(oneStringIterable);
+
+        String[] actualResult = toArray(prefixMatches.topK(pref, k));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTopK_prefixIsLessThenTwoSymbols_exceptionThrown() {
+        String pref = "on";
+        int k = 2;
+
+        prefixMatches.topK(pref, k);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for cached wordsWithPrefix">
+    @Test
+    public void testCachedWordsWithPrefix_repeatedQuery_trieAskedOnce() {
+        PrefixMatches cached = new PrefixMatches(trie, 10,
+                PrefixMatches.Eviction.LRU);
+        when(trie.wordsWithPrefix("one", 3)).thenReturn(oneStringIterable);
+        String[] expected = {"one", "oneapple", "onedrive"};
+
+        String[] first = toArray(cached.wordsWithPrefix("one"));
+        String[] second = toArray(cached.wordsWithPrefix("one"));
+
+        assertArrayEquals(expected, first);
+        assertArrayEquals(expected, second);
+        verify(trie, times(1)).wordsWithPrefix("one", 3);
+        assertEquals(1, cached.getCacheHits());
+        assertEquals(1, cached.getCacheMisses());
+    }
+
+    @Test
+    public void testCachedWordsWithPrefix_wordUnderPrefixLoaded_reloaded() {
+        PrefixMatches cached = new PrefixMatches(trie, 10,
+                PrefixMatches.Eviction.LRU);
+        when(trie.wordsWithPrefix("one", 3)).thenReturn(oneStringIterable);
+
+        cached.wordsWithPrefix("one");
+        cached.load("apple");
+        cached.wordsWithPrefix("one");
+        cached.load("onex");
+        cached.wordsWithPrefix("one");
+
+        verify(trie, times(2)).wordsWithPrefix("one", 3);
+        assertEquals(1, cached.getCacheHits());
+    }
+
+    @Test
+    public void testCachedWordsWithPrefix_wordUnderPrefixDeleted_reloaded() {
+        PrefixMatches cached = new PrefixMatches(trie, 10,
+                PrefixMatches.Eviction.LRU);
+        when(trie.wordsWithPrefix("one", 3)).thenReturn(oneStringIterable);
+        when(trie.delete("oneapple")).thenReturn(true);
+
+        cached.wordsWithPrefix("one");
+        cached.delete("oneapple");
+        cached.wordsWithPrefix("one");
+
+        verify(trie, times(2)).wordsWithPrefix("one", 3);
+    }
+
+    @Test
+    public void testCachedWordsWithPrefix_existingWordLoaded_hitKept()
+            throws IOException {
+        PrefixMatches cached = new PrefixMatches(new RWayTrie(), 4,
+                PrefixMatches.Eviction.LRU);
+        cached.load("one oneapple onedrive");
+
+        cached.wordsWithPrefix("one");
+        cached.load("oneapple");
+        cached.load(new StringReader("one one onedrive"));
+        cached.loadParallel("oneapple");
+        String[] actual = toArray(cached.wordsWithPrefix("one"));
+
+        assertArrayEquals(new String[] {"one", "oneapple", "onedrive"},
+                actual);
+        assertEquals(1, cached.getCacheHits());
+        assertEquals(1, cached.getCacheMisses());
+    }
+
+    @Test
+    public void testCachedWordsWithPrefix_fileOfExistingWordsLoaded_hitKept()
+            throws IOException {
+        Path path = folder.newFile().toPath();
+        Files.write(path, "one apple\noneapple two\n"
+                .getBytes(StandardCharsets.UTF_8));
+        PrefixMatches cached = new PrefixMatches(new RWayTrie(), 4,
+                PrefixMatches.Eviction.LRU);
+        cached.load("one oneapple");
+        ForkJoinPool pool = new ForkJoinPool(2);
+
+        cached.wordsWithPrefix("one");
+        cached.wordsWithPrefix("two");
+        cached.load(path, pool);
+        pool.shutdown();
+        cached.wordsWithPrefix("one");
+        String[] actual = toArray(cached.wordsWithPrefix("two"));
+
+        assertArrayEquals(new String[] {"two"}, actual);
+        assertEquals(1, cached.getCacheHits());
+        assertEquals(3, cached.getCacheMisses());
+    }
+
+    @Test
+    public void testCachedWordsWithPrefix_newWordLoadedInParallel_reloaded() {
+        PrefixMatches cached = new PrefixMatches(new RWayTrie(), 4,
+                PrefixMatches.Eviction.LRU);
+        cached.load("one oneapple");
+
+        cached.wordsWithPrefix("one");
+        cached.loadParallel("oneapple onedrive");
+        String[] actual = toArray(cached.wordsWithPrefix("one"));
+
+        assertArrayEquals(new String[] {"one", "oneapple", "onedrive"},
+                actual);
+        assertEquals(0, cached.getCacheHits());
+    }
+
+    @Test
+    public void testCachedWordsWithPrefix_realTrie_sameResults() {
+        PrefixMatches plain = new PrefixMatches();
+        PrefixMatches cached = new PrefixMatches(new RWayTrie(), 2,
+                PrefixMatches.Eviction.FIFO);
+        String text = "one two three oneapple onedrive threesome";
+        plain.load(text);
+        cached.load(text);
+
+        cached.wordsWithPrefix("one", 2);
+        cached.wordsWithPrefix("thr", 2);
+        plain.delete("onedrive");
+        cached.delete("onedrive");
+        plain.load("threes");
+        cached.load("threes");
+
+        assertArrayEquals(toArray(plain.wordsWithPrefix("one", 2)),
+                toArray(cached.wordsWithPrefix("one", 2)));
+        assertArrayEquals(toArray(plain.wordsWithPrefix("thr", 2)),
+                toArray(cached.wordsWithPrefix("thr", 2)));
+        assertEquals(0, cached.getCacheHits());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testCachedWordsWithPrefix_result_unmodifiable() {
+        PrefixMatches cached = new PrefixMatches(new RWayTrie(), 2,
+                PrefixMatches.Eviction.LRU);
+        cached.load("one oneapple");
+
+        Iterator<String> iterator = cached.wordsWithPrefix("one").iterator();
+        iterator.next();
+        iterator.remove();
+    }
+
+    @Test
+    public void testCacheCounters_cachingOff_zero() {
+        prefixMatches.wordsWithPrefix("one");
+
+        assertEquals(0, prefixMatches.getCacheHits());
+        assertEquals(0, prefixMatches.getCacheMisses());
+    }
+    //</editor-fold>
+
     //<editor-fold desc="Tests for size()">
     @Test
     public void testSize_result() {
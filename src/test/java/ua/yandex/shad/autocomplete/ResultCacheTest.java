@@ -0,0 +1,126 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.autocomplete;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ResultCacheTest {
+
+    private final String[] words = {"one", "oneapple"};
+
+    //<editor-fold desc="Tests for ResultCache(int capacity, Eviction e)">
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_zeroCapacity_exception() {
+        new ResultCache(0, PrefixMatches.Eviction.LRU);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for get and put">
+    @Test
+    public void testGet_cachedQuery_hit() {
+        ResultCache cache = new ResultCache(2, PrefixMatches.Eviction.LRU);
+        cache.put("one", 3, words);
+
+        assertSame(words, cache.get("one", 3));
+        assertNull(cache.get("one", 2));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testPut_fullLruCache_leastRecentlyUsedEvicted() {
+        ResultCache cache = new ResultCache(2, PrefixMatches.Eviction.LRU);
+        cache.put("one", 3, words);
+        cache.put("two", 3, words);
+        cache.get("one", 3);
+
+        cache.put("six", 3, words);
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("one", 3));
+        assertNull(cache.get("two", 3));
+    }
+
+    @Test
+    public void testPut_fullFifoCache_earliestEvicted() {
+        ResultCache cache = new ResultCache(2, PrefixMatches.Eviction.FIFO);
+        cache.put("one", 3, words);
+        cache.put("two", 3, words);
+        cache.get("one", 3);
+
+        cache.put("six", 3, words);
+
+        assertNull(cache.get("one", 3));
+        assertNotNull(cache.get("two", 3));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for invalidate">
+    @Test
+    public void testInvalidate_wordUnderPrefix_onlyItsEntriesDropped() {
+        ResultCache cache = new ResultCache(4, PrefixMatches.Eviction.LRU);
+        cache.put("one", 3, words);
+        cache.put("one", 2, words);
+        cache.put("onea", 3, words);
+        cache.put("two", 3, words);
+
+        cache.invalidate("onedrive");
+
+        assertNull(cache.get("one", 3));
+        assertNull(cache.get("one", 2));
+        assertNotNull(cache.get("onea", 3));
+        assertNotNull(cache.get("two", 3));
+    }
+
+    @Test
+    public void testInvalidate_wordShorterThanCachedPrefixes_nothingDropped() {
+        ResultCache cache = new ResultCache(4, PrefixMatches.Eviction.LRU);
+        cache.put("one", 3, words);
+        cache.put("oneapple", 3, words);
+
+        cache.invalidate("on");
+        cache.invalidate("");
+
+        assertEquals(2, cache.size());
+        cache.invalidate("oneapples");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testInvalidate_evictedPrefix_nothingDropped() {
+        ResultCache cache = new ResultCache(1, PrefixMatches.Eviction.LRU);
+        cache.put("one", 3, words);
+        cache.put("two", 3, words);
+
+        cache.invalidate("onedrive");
+        cache.put("one", 3, words);
+
+        assertEquals(1, cache.size());
+        assertNotNull(cache.get("one", 3));
+    }
+    //</editor-fold>
+}
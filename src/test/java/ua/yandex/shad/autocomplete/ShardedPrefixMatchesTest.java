@@ -0,0 +1,234 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.autocomplete;
+
+import static org.junit.Assert.*;
+import static ua.yandex.shad.utils.StringIterableUtils.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import ua.yandex.shad.collections.Tuple;
+import ua.yandex.shad.tries.RWayTrie;
+
+public class ShardedPrefixMatchesTest {
+
+    private static final int THREADS = 4;
+
+    //<editor-fold desc="Tests for ShardedPrefixMatches(int shards)">
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_zeroShards_exception() {
+        new ShardedPrefixMatches(0);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for load, contains and delete">
+    @Test
+    public void testLoad_strings_wordsInShards() {
+        ShardedPrefixMatches matches = new ShardedPrefixMatches(4);
+
+        int size = matches.load("one two", "three", "on");
+
+        assertEquals(3, size);
+        assertTrue(matches.contains("one"));
+        assertTrue(matches.contains("three"));
+        assertFalse(matches.contains("on"));
+    }
+
+    @Test
+    public void testDelete_hitWord_deleted() {
+        ShardedPrefixMatches matches = new ShardedPrefixMatches(4);
+        matches.load("one two three");
+
+        assertTrue(matches.delete("two"));
+        assertFalse(matches.delete("two"));
+        assertFalse(matches.contains("two"));
+        assertEquals(2, matches.size());
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for wordsWithPrefix and topK">
+    @Test
+    public void testWordsWithPrefix_randomWords_sameAsSingleTrie() {
+        Random random = new Random(41);
+        PrefixMatches expected = new PrefixMatches();
+        ShardedPrefixMatches actual = new ShardedPrefixMatches(7);
+        for (int i = 0; i < 2000; ++i) {
+            String word = randomWord(random);
+            expected.load(word);
+            actual.load(word);
+        }
+
+        assertEquals(expected.size(), actual.size());
+        for (String pref : new String[] {"aab", "bca", "ccc", "abc"}) {
+            assertArrayEquals(toArray(expected.wordsWithPrefix(pref)),
+                    toArray(actual.wordsWithPrefix(pref)));
+            assertArrayEquals(toArray(expected.wordsWithPrefix(pref, 2)),
+                    toArray(actual.wordsWithPrefix(pref, 2)));
+            assertArrayEquals(toArray(expected.topK(pref, 5)),
+                    toArray(actual.topK(pref, 5)));
+        }
+    }
+
+    @Test
+    public void testWordsWithPrefix_writeAfterQuery_resultKept() {
+        ShardedPrefixMatches matches = new ShardedPrefixMatches(4);
+        matches.load("apple apply");
+
+        Iterable<String> before = matches.wordsWithPrefix("app", 5);
+        matches.load("appeal");
+        matches.delete("apple");
+
+        assertArrayEquals(new String[] {"apple", "apply"}, toArray(before));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testWordsWithPrefix_result_unmodifiable() {
+        ShardedPrefixMatches matches = new ShardedPrefixMatches(4);
+        matches.load("apple apply");
+
+        Iterator<String> iterator =
+                matches.wordsWithPrefix("app").iterator();
+        iterator.next();
+        iterator.remove();
+    }
+
+    @Test
+    public void testWords_allShards_everyWordOnce() {
+        ShardedPrefixMatches.ShardedTrie trie =
+                new ShardedPrefixMatches.ShardedTrie(4);
+        String[] expected = {"apple", "apply", "one", "three", "two"};
+        for (String word : expected) {
+            trie.add(new Tuple(word, word.length()));
+        }
+
+        String[] actual = toArray(trie.words());
+        Arrays.sort(actual);
+
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void testWordsWithPrefix_shortPrefix_sameAsSingleTrie() {
+        Random random = new Random(47);
+        RWayTrie expected = new RWayTrie();
+        ShardedPrefixMatches.ShardedTrie actual =
+                new ShardedPrefixMatches.ShardedTrie(7);
+        for (int i = 0; i < 500; ++i) {
+            Tuple tuple = new Tuple(randomWord(random), i);
+            expected.add(tuple);
+            actual.add(tuple);
+        }
+
+        assertArrayEquals(toArray(expected.words()),
+                toArray(actual.words()));
+        for (String pref : new String[] {"", "b"}) {
+            assertArrayEquals(toArray(expected.wordsWithPrefix(pref)),
+                    toArray(actual.wordsWithPrefix(pref)));
+            assertArrayEquals(toArray(expected.wordsWithPrefix(pref, 2)),
+                    toArray(actual.wordsWithPrefix(pref, 2)));
+            assertArrayEquals(toArray(expected.topK(pref, 10)),
+                    toArray(actual.topK(pref, 10)));
+        }
+    }
+
+    @Test
+    public void testTopK_shortPrefixFewWords_allWords() {
+        ShardedPrefixMatches.ShardedTrie trie =
+                new ShardedPrefixMatches.ShardedTrie(4);
+        trie.add(new Tuple("apple", 2));
+        trie.add(new Tuple("apply", 9));
+        trie.add(new Tuple("ant", 5));
+
+        String[] actual = toArray(trie.topK("a", 10));
+
+        assertArrayEquals(new String[] {"apply", "ant", "apple"}, actual);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for concurrent access">
+    @Test
+    public void testLoad_manyThreads_allWordsAdded() throws Exception {
+        final ShardedPrefixMatches matches = new ShardedPrefixMatches(8);
+        final List<String> words = new ArrayList<>();
+        Random random = new Random(43);
+        for (int i = 0; i < 2000; ++i) {
+            words.add(randomWord(random));
+        }
+        PrefixMatches expected = new PrefixMatches();
+        for (String word : words) {
+            expected.load(word);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; ++t) {
+                final int first = t;
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int i = first; i < words.size();
+                             i += THREADS) {
+                            matches.load(words.get(i));
+                            matches.wordsWithPrefix(words.get(i));
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(expected.size(), matches.size());
+        for (String word : words) {
+            assertTrue(matches.contains(word));
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Some additional methods">
+    private String randomWord(Random random) {
+        int length = 3 + random.nextInt(4);
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; ++i) {
+            word.append((char) ('a' + random.nextInt(3)));
+        }
+        return word.toString();
+    }
+    //</editor-fold>
+}
@@ -0,0 +1,132 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.autocomplete;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TokenizerTest {
+
+    //<editor-fold desc="Tests for next()">
+    @Test
+    public void testNext_emptyText_null() throws IOException {
+        Tokenizer tokenizer = new Tokenizer(new StringReader(""), 1);
+
+        assertNull(tokenizer.next());
+    }
+
+    @Test
+    public void testNext_onlySpaces_null() throws IOException {
+        Tokenizer tokenizer = new Tokenizer(new StringReader(" \t\n\r "), 1);
+
+        assertNull(tokenizer.next());
+    }
+
+    @Test
+    public void testNext_mixedWhitespaces_sameAsSplit() throws IOException {
+        String text = "  one\ttwo\n\nthree\u000Bfour\ffive\r\nsix  ";
+
+        String[] actualResult = tokens(new StringReader(text), 1);
+
+        assertArrayEquals(text.trim().split("\\s+"), actualResult);
+    }
+
+    @Test
+    public void testNext_shortWords_skipped() throws IOException {
+        String[] expectedResult = {"one", "apple"};
+
+        String[] actualResult =
+                tokens(new StringReader("a on one to apple"), 3);
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+
+    @Test
+    public void testNext_nonBreakingSpace_partOfWord() throws IOException {
+        String[] expectedResult = {"one\u00A0two"};
+
+        String[] actualResult =
+                tokens(new StringReader("one\u00A0two"), 1);
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+
+    @Test
+    public void testNext_wordsAcrossBufferBoundaries_result()
+            throws IOException {
+        StringBuilder text = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 3000; ++i) {
+            String word = "w" + i;
+            for (int j = 0; j < i % 50; ++j) {
+                word += "x";
+            }
+            expected.add(word);
+            text.append(word).append(' ');
+        }
+
+        String[] actualResult = tokens(new StringReader(text.toString()), 1);
+
+        assertArrayEquals(expected.toArray(new String[0]), actualResult);
+    }
+
+    @Test
+    public void testNext_readerReturnsFewCharacters_result()
+            throws IOException {
+        String[] expectedResult = {"one", "apple"};
+        Reader slow = new StringReader(" one  apple ") {
+            @Override
+            public int read(char[] cbuf, int off, int len)
+                    throws IOException {
+                return super.read(cbuf, off, Math.min(len, 2));
+            }
+        };
+
+        String[] actualResult = tokens(slow, 1);
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Some additional methods">
+    private String[] tokens(Reader reader, int minLength)
+            throws IOException {
+        Tokenizer tokenizer = new Tokenizer(reader, minLength);
+        List<String> result = new ArrayList<>();
+        for (String word = tokenizer.next(); word != null;
+             word = tokenizer.next()) {
+            result.add(word);
+        }
+        return result.toArray(new String[result.size()]);
+    }
+    //</editor-fold>
+}
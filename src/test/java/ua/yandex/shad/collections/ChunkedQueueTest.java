@@ -0,0 +1,156 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.collections;
+
+import static org.junit.Assert.*;
+
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+public class ChunkedQueueTest {
+
+    //<editor-fold desc="Tests for ChunkedQueue(int chunkSize)">
+    @Test(expected = IllegalArgumentException.class)
+    public void testChunkSizeConstructor_zeroChunkSize_exception() {
+        int chunkSize = 0;
+
+        new ChunkedQueue<String>(chunkSize);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for ChunkedQueue()">
+    @Test
+    public void testDefaultConstructor_empty() {
+        ChunkedQueue<String> queue = new ChunkedQueue<>();
+
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.size());
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for add(T value)">
+    @Test
+    public void testAdd_moreThanChunk_size() {
+        int expectedSize = 5;
+
+        ChunkedQueue<String> queue = new ChunkedQueue<>(2);
+        for (int i = 0; i < expectedSize; ++i) {
+            queue.add("one");
+        }
+        int actualSize = queue.size();
+
+        assertEquals(expectedSize, actualSize);
+    }
+
+    @Test
+    public void testAdd_moreThanChunk_newChunksLinked() {
+        int expectedChunks = 3;
+
+        ChunkedQueue<String> queue = new ChunkedQueue<>(2);
+        queue.add("one");
+        queue.add("two");
+        queue.add("three");
+        queue.add("four");
+        queue.add("five");
+        int actualChunks = queue.chunks();
+
+        assertEquals(expectedChunks, actualChunks);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for peek()">
+    @Test(expected = NoSuchElementException.class)
+    public void testPeek_emptyQueue_exception() {
+        ChunkedQueue<String> queue = new ChunkedQueue<>();
+
+        queue.peek();
+    }
+
+    @Test
+    public void testPeek_elementNotRemoved() {
+        ChunkedQueue<String> queue = new ChunkedQueue<>();
+        queue.add("one");
+
+        assertEquals("one", queue.peek());
+        assertEquals(1, queue.size());
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for poll()">
+    @Test(expected = NoSuchElementException.class)
+    public void testPoll_emptyQueue_exception() {
+        ChunkedQueue<String> queue = new ChunkedQueue<>();
+
+        queue.poll();
+    }
+
+    @Test
+    public void testPoll_severalChunks_fifoOrder() {
+        String[] strings = {"one", "two", "three", "four", "five"};
+
+        ChunkedQueue<String> queue = new ChunkedQueue<>(2);
+        for (String string : strings) {
+            queue.add(string);
+        }
+
+        for (String string : strings) {
+            assertEquals(string, queue.poll());
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testPoll_consumedChunks_released() {
+        int expectedChunks = 1;
+
+        ChunkedQueue<String> queue = new ChunkedQueue<>(2);
+        queue.add("one");
+        queue.add("two");
+        queue.add("three");
+        queue.poll();
+        queue.poll();
+        int actualChunks = queue.chunks();
+
+        assertEquals(expectedChunks, actualChunks);
+    }
+
+    @Test
+    public void testPoll_drainedQueue_reusedForNextElements() {
+        ChunkedQueue<String> queue = new ChunkedQueue<>(2);
+        queue.add("one");
+        queue.add("two");
+        queue.poll();
+        queue.poll();
+
+        queue.add("three");
+        queue.add("four");
+
+        assertEquals(1, queue.chunks());
+        assertEquals("three", queue.poll());
+        assertEquals("four", queue.poll());
+    }
+    //</editor-fold>
+}
@@ -0,0 +1,282 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.tries;
+
+import static org.junit.Assert.*;
+import static ua.yandex.shad.utils.StringIterableUtils.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+import ua.yandex.shad.collections.Tuple;
+
+public class ConcurrentRWayTrieTest {
+
+    private static final int THREADS = 4;
+    private static final int R = ConcurrentRWayTrie.R;
+
+    private ConcurrentRWayTrie trie;
+
+    //<editor-fold desc="Set up tests">
+    @Before
+    public void setUp() {
+        trie = new ConcurrentRWayTrie();
+        trie.add(new Tuple("on", 2));
+        trie.add(new Tuple("one", 3));
+        trie.add(new Tuple("oneapple", 8));
+        trie.add(new Tuple("only", 5));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for add(Tuple t)">
+    @Test
+    public void testAdd_newWord_sizeIncreased() {
+        trie.add(new Tuple("two", 7));
+
+        assertEquals(5, trie.size());
+        assertTrue(trie.contains("two"));
+    }
+
+    @Test
+    public void testAdd_existingWord_firstWeightKept() {
+        trie.add(new Tuple("one", 9));
+
+        assertEquals(4, trie.size());
+        assertEquals(3, trie.getRoot().getNext('o').getNext('n')
+                .getNext('e').getValue());
+    }
+
+    @Test
+    public void testAdd_leaf_hasNoLinkArray() {
+        ConcurrentRWayTrie.Node leaf = trie.getRoot().getNext('o')
+                .getNext('n').getNext('l').getNext('y');
+
+        assertEquals(0, leaf.capacity());
+        assertEquals(R, trie.getRoot().capacity());
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void testAdd_wordOutOfAlphabet_exception() {
+        trie.add(new Tuple("One", 1));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for contains(String word)">
+    @Test
+    public void testContains_prefixOfWord_negativeResult() {
+        assertFalse(trie.contains("o"));
+        assertFalse(trie.contains("onea"));
+        assertFalse(trie.contains("two"));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for delete(String word)">
+    @Test
+    public void testDelete_hitWord_deleted() {
+        assertTrue(trie.delete("one"));
+        assertFalse(trie.delete("one"));
+        assertFalse(trie.contains("one"));
+        assertTrue(trie.contains("oneapple"));
+        assertEquals(3, trie.size());
+    }
+
+    @Test
+    public void testDelete_lastWordBelowNodes_nodesPruned() {
+        trie.delete("oneapple");
+
+        assertNull(trie.getRoot().getNext('o').getNext('n').getNext('e')
+                .getNext('a'));
+        assertTrue(trie.delete("one"));
+        assertNull(trie.getRoot().getNext('o').getNext('n').getNext('e'));
+        assertNotNull(trie.getRoot().getNext('o').getNext('n'));
+    }
+
+    @Test
+    public void testDelete_prunedWordAddedAgain_found() {
+        trie.delete("oneapple");
+        trie.delete("one");
+        trie.add(new Tuple("oneapple", 4));
+
+        assertTrue(trie.contains("oneapple"));
+        assertFalse(trie.contains("one"));
+        assertEquals(3, trie.size());
+    }
+
+    @Test
+    public void testDelete_missWord_negativeResult() {
+        assertFalse(trie.delete("onx"));
+        assertFalse(trie.delete("oneapples"));
+        assertEquals(4, trie.size());
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for wordsWithPrefix and topK">
+    @Test
+    public void testWordsWithPrefix_result() {
+        assertArrayEquals(new String[] {"on", "one", "only", "oneapple"},
+                toArray(trie.words()));
+        assertArrayEquals(new String[] {"on", "one"},
+                toArray(trie.wordsWithPrefix("on", 2)));
+    }
+
+    @Test
+    public void testTopK_heaviestWordDeleted_nextHeaviest() {
+        trie.delete("oneapple");
+
+        assertArrayEquals(new String[] {"only", "one"},
+                toArray(trie.topK("o", 2)));
+    }
+
+    @Test
+    public void testWordsWithPrefix_addDuringIteration_noException() {
+        Iterator<String> iterator = trie.words().iterator();
+        String first = iterator.next();
+        trie.add(new Tuple("onions", 1));
+        trie.delete("oneapple");
+        List<String> rest = new ArrayList<>();
+        while (iterator.hasNext()) {
+            rest.add(iterator.next());
+        }
+
+        assertEquals("on", first);
+        assertTrue(rest.contains("only"));
+        assertFalse(rest.contains("oneapple"));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for concurrent access">
+    @Test
+    public void testAdd_manyThreadsSameWords_eachWordCountedOnce()
+            throws Exception {
+        final ConcurrentRWayTrie shared = new ConcurrentRWayTrie();
+        final List<String> words = words(3000);
+
+        runInThreads(new Callable<Void>() {
+            @Override
+            public Void call() {
+                for (String word : words) {
+                    shared.add(new Tuple(word, word.length()));
+                }
+                return null;
+            }
+        });
+
+        assertEquals(words.size(), shared.size());
+        for (String word : words) {
+            assertTrue(shared.contains(word));
+        }
+    }
+
+    @Test
+    public void testDelete_manyThreadsSameWords_eachWordCountedOnce()
+            throws Exception {
+        final ConcurrentRWayTrie shared = new ConcurrentRWayTrie();
+        final List<String> words = words(3000);
+        for (String word : words) {
+            shared.add(new Tuple(word, 1));
+        }
+
+        runInThreads(new Callable<Void>() {
+            @Override
+            public Void call() {
+                for (String word : words) {
+                    shared.delete(word);
+                }
+                return null;
+            }
+        });
+
+        assertEquals(0, shared.size());
+        assertArrayEquals(new String[0], toArray(shared.words()));
+    }
+
+    @Test
+    public void testAddDelete_manyThreadsChurn_consistentAfterwards()
+            throws Exception {
+        final ConcurrentRWayTrie shared = new ConcurrentRWayTrie();
+        final List<String> words = words(2000);
+
+        runInThreads(new Callable<Void>() {
+            @Override
+            public Void call() {
+                for (int round = 0; round < 5; ++round) {
+                    for (String word : words) {
+                        shared.add(new Tuple(word, word.length()));
+                    }
+                    for (String word : words) {
+                        shared.delete(word);
+                    }
+                }
+                return null;
+            }
+        });
+        assertEquals(0, shared.size());
+        for (String word : words) {
+            shared.add(new Tuple(word, word.length()));
+        }
+
+        assertEquals(words.size(), shared.size());
+        for (String word : words) {
+            assertTrue(shared.contains(word));
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Some additional methods">
+    private List<String> words(int count) {
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            StringBuilder word = new StringBuilder();
+            for (int n = i; n > 0; n /= R) {
+                word.append((char) ('a' + n % R));
+            }
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    private void runInThreads(Callable<Void> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; ++i) {
+                futures.add(executor.submit(task));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+    //</editor-fold>
+}
@@ -0,0 +1,233 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.tries;
+
+import static org.junit.Assert.*;
+import static ua.yandex.shad.utils.StringIterableUtils.*;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ua.yandex.shad.collections.Tuple;
+
+public class DawgTest {
+
+    //<editor-fold desc="Set up tests">
+    private Dawg dawg;
+
+    @Before
+    public void setUp() {
+        dawg = new Dawg.Builder()
+                .add(new Tuple("apple", 4))
+                .add(new Tuple("o", 1))
+                .add(new Tuple("on", 2))
+                .add(new Tuple("one", 3))
+                .add(new Tuple("oneapple", 5))
+                .build();
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for Builder">
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuilderAdd_unsortedWords_exceptionThrown() {
+        new Dawg.Builder().add(new Tuple("one", 3)).add(new Tuple("on", 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuilderAdd_duplicateWord_exceptionThrown() {
+        new Dawg.Builder().add(new Tuple("one", 3)).add(new Tuple("one", 3));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testBuilderAdd_afterBuild_exceptionThrown() {
+        Dawg.Builder builder = new Dawg.Builder();
+        builder.build();
+
+        builder.add(new Tuple("one", 3));
+    }
+
+    @Test
+    public void testBuild_emptyBuilder_noWords() {
+        Dawg empty = new Dawg.Builder().build();
+
+        assertEquals(0, empty.size());
+        assertFalse(empty.words().iterator().hasNext());
+        assertFalse(empty.topK("", 1).iterator().hasNext());
+        assertFalse(empty.contains(""));
+    }
+
+    @Test
+    public void testBuild_commonSuffixes_statesShared() {
+        Dawg shared = new Dawg.Builder()
+                .add(new Tuple("tap", 1))
+                .add(new Tuple("taps", 2))
+                .add(new Tuple("top", 3))
+                .add(new Tuple("tops", 4))
+                .build();
+
+        assertEquals(5, shared.stateCount());
+        assertEquals(5, shared.edgeCount());
+        assertEquals(4, shared.size());
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for add(Tuple t) and delete(String word)">
+    @Test(expected = UnsupportedOperationException.class)
+    public void testAdd_exceptionThrown() {
+        dawg.add(new Tuple("two", 3));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testDelete_exceptionThrown() {
+        dawg.delete("one");
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for contains(String word)">
+    @Test
+    public void testContains_hitWord_positiveResult() {
+        assertTrue(dawg.contains("one"));
+        assertTrue(dawg.contains("oneapple"));
+        assertTrue(dawg.contains("apple"));
+    }
+
+    @Test
+    public void testContains_missWord_negativeResult() {
+        assertFalse(dawg.contains("onea"));
+        assertFalse(dawg.contains("two"));
+        assertFalse(dawg.contains("oneapples"));
+        assertFalse(dawg.contains(""));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for words()">
+    @Test
+    public void testWords_result() {
+        String[] expectedResult = {"o", "on", "one", "apple", "oneapple"};
+
+        String[] actualResult = toArray(dawg.words());
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for wordsWithPrefix(String pref)">
+    @Test
+    public void testWordsWithPrefix_hitsSeveralWords_result() {
+        String[] expectedResult = {"one", "oneapple"};
+
+        String[] actualResult = toArray(dawg.wordsWithPrefix("one"));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+
+    @Test
+    public void testWordsWithPrefix_doNotHitAnyWord_negativeResult() {
+        assertFalse(dawg.wordsWithPrefix("two").iterator().hasNext());
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for wordsWithPrefix(String pref, int k)">
+    @Test
+    public void testWordsWithPrefixWithK_kEqualsOne_onlyShortestWords() {
+        String[] expectedResult = {"one"};
+
+        String[] actualResult = toArray(dawg.wordsWithPrefix("one", 1));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for topK(String pref, int k)">
+    @Test
+    public void testTopK_result() {
+        String[] expectedResult = {"oneapple", "apple", "one"};
+
+        String[] actualResult = toArray(dawg.topK("", 3));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+
+    @Test
+    public void testTopK_sharedSuffixes_ownWeights() {
+        Dawg shared = new Dawg.Builder()
+                .add(new Tuple("tap", 1))
+                .add(new Tuple("taps", 4))
+                .add(new Tuple("top", 3))
+                .add(new Tuple("tops", 2))
+                .build();
+        String[] expectedResult = {"taps", "top", "tops", "tap"};
+
+        String[] actualResult = toArray(shared.topK("t", 4));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests against RWayTrie">
+    @Test
+    public void testRandomWords_sameAnswersAsRWayTrie() {
+        Random random = new Random(11);
+        Map<String, Integer> sorted = new TreeMap<>();
+        for (int i = 0; i < 5000; ++i) {
+            sorted.put(randomWord(random), random.nextInt(100));
+        }
+        RWayTrie rway = new RWayTrie();
+        Dawg.Builder builder = new Dawg.Builder();
+        for (Map.Entry<String, Integer> entry : sorted.entrySet()) {
+            Tuple tuple = new Tuple(entry.getKey(), entry.getValue());
+            rway.add(tuple);
+            builder.add(tuple);
+        }
+
+        Dawg built = builder.build();
+
+        assertEquals(rway.size(), built.size());
+        assertArrayEquals(toArray(rway.words()), toArray(built.words()));
+        assertArrayEquals(toArray(rway.wordsWithPrefix("ba", 2)),
+                toArray(built.wordsWithPrefix("ba", 2)));
+        assertArrayEquals(toArray(rway.topK("b", 25)),
+                toArray(built.topK("b", 25)));
+        for (int i = 0; i < 1000; ++i) {
+            String word = randomWord(random);
+            assertEquals(rway.contains(word), built.contains(word));
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Some additional methods">
+    private String randomWord(Random random) {
+        char[] chars = new char[1 + random.nextInt(8)];
+        for (int i = 0; i < chars.length; ++i) {
+            chars[i] = (char) ('a' + random.nextInt(RWayTrie.R));
+        }
+        return new String(chars);
+    }
+    //</editor-fold>
+}
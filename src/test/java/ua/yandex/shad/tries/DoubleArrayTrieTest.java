@@ -0,0 +1,191 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.tries;
+
+import static org.junit.Assert.*;
+import static ua.yandex.shad.utils.StringIterableUtils.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ua.yandex.shad.collections.Tuple;
+
+public class DoubleArrayTrieTest {
+
+    //<editor-fold desc="Set up tests">
+    private RWayTrie source;
+    private DoubleArrayTrie trie;
+
+    @Before
+    public void setUp() {
+        source = new RWayTrie();
+        source.add(new Tuple("o", 1));
+        source.add(new Tuple("on", 2));
+        source.add(new Tuple("one", 3));
+        source.add(new Tuple("oneapple", 5));
+        source.add(new Tuple("apple", 4));
+        trie = source.freeze();
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for RWayTrie.freeze()">
+    @Test
+    public void testFreeze_sourceChangedAfter_frozenNotChanged() {
+        source.add(new Tuple("two", 3));
+        source.delete("one");
+
+        assertFalse(trie.contains("two"));
+        assertTrue(trie.contains("one"));
+        assertEquals(5, trie.size());
+    }
+
+    @Test
+    public void testFreeze_emptyTrie_noWords() {
+        DoubleArrayTrie empty = new RWayTrie().freeze();
+
+        assertEquals(0, empty.size());
+        assertFalse(empty.words().iterator().hasNext());
+        assertFalse(empty.contains(""));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for add(Tuple t) and delete(String word)">
+    @Test(expected = UnsupportedOperationException.class)
+    public void testAdd_exceptionThrown() {
+        trie.add(new Tuple("two", 3));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testDelete_exceptionThrown() {
+        trie.delete("one");
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for contains(String word)">
+    @Test
+    public void testContains_hitWord_positiveResult() {
+        assertTrue(trie.contains("one"));
+        assertTrue(trie.contains("oneapple"));
+        assertTrue(trie.contains("apple"));
+    }
+
+    @Test
+    public void testContains_missWord_negativeResult() {
+        assertFalse(trie.contains("onea"));
+        assertFalse(trie.contains("two"));
+        assertFalse(trie.contains("oneapples"));
+    }
+
+    @Test
+    public void testContains_characterOutsideAlphabet_negativeResult() {
+        assertFalse(trie.contains("One"));
+        assertFalse(trie.contains("o-n"));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for words()">
+    @Test
+    public void testWords_result() {
+        String[] expectedResult = {"o", "on", "one", "apple", "oneapple"};
+
+        String[] actualResult = toArray(trie.words());
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for wordsWithPrefix(String pref)">
+    @Test
+    public void testWordsWithPrefix_hitsSeveralWords_result() {
+        String[] expectedResult = {"one", "oneapple"};
+
+        String[] actualResult = toArray(trie.wordsWithPrefix("one"));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+
+    @Test
+    public void testWordsWithPrefix_doNotHitAnyWord_negativeResultIteratorHasNext() {
+        assertFalse(trie.wordsWithPrefix("two").iterator().hasNext());
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for wordsWithPrefix(String pref, int k)">
+    @Test
+    public void testWordsWithPrefixWithK_kEqualsOne_onlyShortestWords() {
+        String[] expectedResult = {"one"};
+
+        String[] actualResult = toArray(trie.wordsWithPrefix("one", 1));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for topK(String pref, int k)">
+    @Test
+    public void testTopK_result() {
+        String[] expectedResult = {"oneapple", "apple", "one"};
+
+        String[] actualResult = toArray(trie.topK("", 3));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests against RWayTrie">
+    @Test
+    public void testRandomWords_sameAnswersAsRWayTrie() {
+        Random random = new Random(7);
+        RWayTrie rway = new RWayTrie();
+        for (int i = 0; i < 5000; ++i) {
+            String word = randomWord(random);
+            rway.add(new Tuple(word, random.nextInt(100)));
+        }
+
+        DoubleArrayTrie frozen = rway.freeze();
+
+        assertEquals(rway.size(), frozen.size());
+        assertArrayEquals(toArray(rway.words()), toArray(frozen.words()));
+        assertArrayEquals(toArray(rway.topK("b", 25)),
+                toArray(frozen.topK("b", 25)));
+        for (int i = 0; i < 1000; ++i) {
+            String word = randomWord(random);
+            assertEquals(rway.contains(word), frozen.contains(word));
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Some additional methods">
+    private String randomWord(Random random) {
+        char[] chars = new char[1 + random.nextInt(8)];
+        for (int i = 0; i < chars.length; ++i) {
+            chars[i] = (char) ('a' + random.nextInt(RWayTrie.R));
+        }
+        return new String(chars);
+    }
+    //</editor-fold>
+}
@@ -0,0 +1,269 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.tries;
+
+import static org.junit.Assert.*;
+import static ua.yandex.shad.utils.StringIterableUtils.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import ua.yandex.shad.autocomplete.PrefixMatches;
+import ua.yandex.shad.collections.Tuple;
+
+public class MappedTrieTest {
+
+    //<editor-fold desc="Set up tests">
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    private MappedTrie trie;
+
+    @Before
+    public void setUp() throws IOException {
+        trie = MappedTrie.open(save(source()));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for open(Path path)">
+    @Test(expected = IOException.class)
+    public void testOpen_notSnapshot_exceptionThrown() throws IOException {
+        File file = folder.newFile();
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6, 7, 8,
+                    9, 10, 11, 12, 13, 14, 15, 16}));
+        }
+
+        MappedTrie.open(file.toPath());
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpen_truncatedFile_exceptionThrown() throws IOException {
+        Path path = save(new RWayTrie());
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        MappedTrie.open(path);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testContains_childOutsideFile_exceptionThrown()
+            throws IOException {
+        Path path = save(new RWayTrie());
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer root = ByteBuffer.allocate(8).putInt(1).putInt(1);
+            root.flip();
+            channel.write(root, Snapshot.HEADER_BYTES + Snapshot.MASK);
+        }
+        MappedTrie corrupted = MappedTrie.open(path);
+
+        corrupted.contains("a");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testWords_childBeforeParent_exceptionThrown()
+            throws IOException {
+        RWayTrie source = new RWayTrie();
+        source.add(new Tuple("a", 1));
+        Path path = save(source);
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer first = ByteBuffer.allocate(4).putInt(0);
+            first.flip();
+            channel.write(first, Snapshot.HEADER_BYTES
+                    + Snapshot.FIRST_CHILD);
+        }
+        MappedTrie corrupted = MappedTrie.open(path);
+
+        toArray(corrupted.words());
+    }
+
+    @Test
+    public void testConstructor_littleEndianBuffer_sameWords()
+            throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(save(source()))) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        MappedTrie mapped = new MappedTrie(buffer);
+
+        assertArrayEquals(toArray(trie.words()), toArray(mapped.words()));
+        assertEquals(ByteOrder.LITTLE_ENDIAN, buffer.order());
+    }
+
+    @Test
+    public void testOpen_emptyTrie_noWords() throws IOException {
+        MappedTrie empty = MappedTrie.open(save(new RWayTrie()));
+
+        assertEquals(0, empty.size());
+        assertFalse(empty.words().iterator().hasNext());
+        assertFalse(empty.contains(""));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for add(Tuple t) and delete(String word)">
+    @Test(expected = UnsupportedOperationException.class)
+    public void testAdd_exceptionThrown() {
+        trie.add(new Tuple("two", 3));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testDelete_exceptionThrown() {
+        trie.delete("one");
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for contains(String word)">
+    @Test
+    public void testContains_hitWord_positiveResult() {
+        assertTrue(trie.contains("one"));
+        assertTrue(trie.contains("oneapple"));
+        assertTrue(trie.contains("apple"));
+    }
+
+    @Test
+    public void testContains_missWord_negativeResult() {
+        assertFalse(trie.contains("onea"));
+        assertFalse(trie.contains("two"));
+        assertFalse(trie.contains("One"));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for words()">
+    @Test
+    public void testWords_result() {
+        String[] expectedResult = {"o", "on", "one", "apple", "oneapple"};
+
+        String[] actualResult = toArray(trie.words());
+
+        assertArrayEquals(expectedResult, actualResult);
+        assertEquals(5, trie.size());
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for wordsWithPrefix(String pref, int k)">
+    @Test
+    public void testWordsWithPrefixWithK_kEqualsOne_onlyShortestWords() {
+        String[] expectedResult = {"one"};
+
+        String[] actualResult = toArray(trie.wordsWithPrefix("one", 1));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for topK(String pref, int k)">
+    @Test
+    public void testTopK_result() {
+        String[] expectedResult = {"oneapple", "apple", "one"};
+
+        String[] actualResult = toArray(trie.topK("", 3));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests with PrefixMatches">
+    @Test
+    public void testPrefixMatches_overMappedTrie_sameQueries() {
+        PrefixMatches matches = new PrefixMatches(trie);
+        String[] expectedResult = {"one", "oneapple"};
+
+        String[] actualResult = toArray(matches.wordsWithPrefix("one"));
+
+        assertArrayEquals(expectedResult, actualResult);
+        assertTrue(matches.contains("apple"));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests against RWayTrie">
+    @Test
+    public void testRandomWords_sameAnswersAsRWayTrie() throws IOException {
+        Random random = new Random(5);
+        RWayTrie rway = new RWayTrie();
+        for (int i = 0; i < 5000; ++i) {
+            String word = randomWord(random);
+            rway.add(new Tuple(word, random.nextInt(100)));
+        }
+
+        MappedTrie mapped = MappedTrie.open(save(rway));
+
+        assertEquals(rway.size(), mapped.size());
+        assertArrayEquals(toArray(rway.words()), toArray(mapped.words()));
+        assertArrayEquals(toArray(rway.topK("c", 25)),
+                toArray(mapped.topK("c", 25)));
+        for (int i = 0; i < 1000; ++i) {
+            String word = randomWord(random);
+            assertEquals(rway.contains(word), mapped.contains(word));
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Some additional methods">
+    private RWayTrie source() {
+        RWayTrie source = new RWayTrie();
+        source.add(new Tuple("o", 1));
+        source.add(new Tuple("on", 2));
+        source.add(new Tuple("one", 3));
+        source.add(new Tuple("oneapple", 5));
+        source.add(new Tuple("apple", 4));
+        return source;
+    }
+
+    private Path save(RWayTrie source) throws IOException {
+        Path path = folder.newFile().toPath();
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.WRITE)) {
+            source.save(channel);
+        }
+        return path;
+    }
+
+    private String randomWord(Random random) {
+        char[] chars = new char[1 + random.nextInt(8)];
+        for (int i = 0; i < chars.length; ++i) {
+            chars[i] = (char) ('a' + random.nextInt(RWayTrie.R));
+        }
+        return new String(chars);
+    }
+    //</editor-fold>
+}
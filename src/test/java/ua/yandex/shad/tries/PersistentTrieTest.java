@@ -0,0 +1,189 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.tries;
+
+import static org.junit.Assert.*;
+import static ua.yandex.shad.utils.StringIterableUtils.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import ua.yandex.shad.collections.Tuple;
+
+public class PersistentTrieTest {
+
+    private PersistentTrie trie;
+
+    //<editor-fold desc="Set up tests">
+    @Before
+    public void setUp() {
+        trie = new PersistentTrie()
+                .with(new Tuple("on", 2))
+                .with(new Tuple("one", 3))
+                .with(new Tuple("oneapple", 8))
+                .with(new Tuple("only", 5))
+                .with(new Tuple("two", 7));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for with(Tuple t)">
+    @Test
+    public void testWith_newWord_oldVersionUnchanged() {
+        PersistentTrie changed = trie.with(new Tuple("three", 1));
+
+        assertTrue(changed.contains("three"));
+        assertEquals(6, changed.size());
+        assertFalse(trie.contains("three"));
+        assertEquals(5, trie.size());
+    }
+
+    @Test
+    public void testWith_newWord_untouchedSubtreesShared() {
+        PersistentTrie changed = trie.with(new Tuple("twelve", 1));
+
+        assertNotSame(trie.getRoot(), changed.getRoot());
+        assertSame(trie.getRoot().getNext('o'),
+                changed.getRoot().getNext('o'));
+        assertNotSame(trie.getRoot().getNext('t'),
+                changed.getRoot().getNext('t'));
+    }
+
+    @Test
+    public void testWith_existingWord_sameVersion() {
+        PersistentTrie changed = trie.with(new Tuple("one", 9));
+
+        assertSame(trie, changed);
+    }
+
+    @Test
+    public void testWith_heavierWord_maxWeightsRaised() {
+        PersistentTrie changed = trie.with(new Tuple("onion", 10));
+
+        assertEquals(10, changed.getRoot().getMaxWeight());
+        assertEquals(8, trie.getRoot().getMaxWeight());
+        assertArrayEquals(new String[] {"onion", "oneapple"},
+                toArray(changed.topK("o", 2)));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for without(String word)">
+    @Test
+    public void testWithout_hitWord_oldVersionUnchanged() {
+        PersistentTrie changed = trie.without("one");
+
+        assertFalse(changed.contains("one"));
+        assertTrue(changed.contains("oneapple"));
+        assertEquals(4, changed.size());
+        assertTrue(trie.contains("one"));
+    }
+
+    @Test
+    public void testWithout_missWord_sameVersion() {
+        assertSame(trie, trie.without("onea"));
+        assertSame(trie, trie.without("three"));
+    }
+
+    @Test
+    public void testWithout_lastWordBelow_redundantNodesDropped() {
+        PersistentTrie changed = trie.without("two");
+
+        assertNull(changed.getRoot().getNext('t'));
+        assertNotNull(trie.getRoot().getNext('t'));
+    }
+
+    @Test
+    public void testWithout_heaviestWord_maxWeightsUpdated() {
+        PersistentTrie changed = trie.without("oneapple");
+
+        assertEquals(7, changed.getRoot().getMaxWeight());
+        assertArrayEquals(new String[] {"only", "one"},
+                toArray(changed.topK("on", 2)));
+    }
+
+    @Test
+    public void testWithout_allWords_empty() {
+        PersistentTrie changed = trie;
+        for (String word : toArray(trie.words())) {
+            changed = changed.without(word);
+        }
+
+        assertEquals(0, changed.size());
+        assertArrayEquals(new String[0], toArray(changed.words()));
+        assertEquals(5, toArray(trie.words()).length);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for add and delete">
+    @Test(expected = UnsupportedOperationException.class)
+    public void testAdd_exception() {
+        trie.add(new Tuple("three", 1));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testDelete_exception() {
+        trie.delete("one");
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for wordsWithPrefix">
+    @Test
+    public void testWordsWithPrefix_result() {
+        assertArrayEquals(new String[] {"on", "one", "only", "oneapple"},
+                toArray(trie.wordsWithPrefix("on")));
+        assertArrayEquals(new String[] {"on", "one"},
+                toArray(trie.wordsWithPrefix("o", 2)));
+    }
+
+    @Test
+    public void testWordsWithPrefix_randomVersions_sameAsRWayTrie() {
+        Random random = new Random(37);
+        RWayTrie expected = new RWayTrie();
+        PersistentTrie actual = new PersistentTrie();
+        for (int i = 0; i < 3000; ++i) {
+            StringBuilder word = new StringBuilder();
+            int length = 1 + random.nextInt(5);
+            for (int j = 0; j < length; ++j) {
+                word.append((char) ('a' + random.nextInt(4)));
+            }
+            String key = word.toString();
+            if (random.nextInt(3) == 0) {
+                expected.delete(key);
+                actual = actual.without(key);
+            } else {
+                int weight = random.nextInt(1000);
+                expected.add(new Tuple(key, weight));
+                actual = actual.with(new Tuple(key, weight));
+            }
+        }
+
+        assertEquals(expected.size(), actual.size());
+        assertArrayEquals(toArray(expected.words()),
+                toArray(actual.words()));
+        assertArrayEquals(toArray(expected.topK("a", 10)),
+                toArray(actual.topK("a", 10)));
+    }
+    //</editor-fold>
+}
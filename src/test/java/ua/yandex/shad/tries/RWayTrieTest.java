@@ -29,8 +29,26 @@ import static org.mockito.Mockito.*;
 import static ua.yandex.shad.tries.RWayTrie.Node;
 import static ua.yandex.shad.utils.StringIterableUtils.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 
@@ -46,6 +64,8 @@ public class RWayTrieTest {
     @Mock private Tuple oneDriveMock;
     @Mock private Tuple oneAppleMock;
 
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
     private RWayTrie trie;
     private Node root;
 
@@ -178,6 +198,185 @@ public class RWayTrieTest {
 
         assertNotNull(root);
     }
+
+    @Test
+    public void testDelete_missWordBelowExistingPath_nodesDoNotChanged() {
+        String word = "oneapples";
+
+        assertFalse(trie.delete(word));
+        assertNotNull(get("oneapple"));
+        assertEquals(4, trie.size());
+    }
+
+    @Test
+    public void testDelete_wordLongerThanPathStack_deleted() {
+        String word = "abcdefghijklmnopqrstuvwxyzabcdefghijklmnopqrstuvwxyz";
+        trie.add(new Tuple(word, 1));
+
+        assertTrue(trie.delete(word));
+        assertNull(get("a"));
+        assertTrue(trie.delete("oneapple"));
+        assertNull(get("onea"));
+    }
+
+    @Test
+    public void testDelete_heaviestWord_maxWeightsUpdated() {
+        RWayTrie weighted = new RWayTrie();
+        weighted.add(new Tuple("one", 3));
+        weighted.add(new Tuple("oneapple", 8));
+        weighted.add(new Tuple("only", 5));
+
+        weighted.delete("oneapple");
+
+        assertEquals(5, weighted.getRoot().getMaxWeight());
+        assertEquals(3, weighted.getRoot().getNext('o').getNext('n')
+                .getNext('e').getMaxWeight());
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for deletePrefix(String pref)">
+    @Test
+    public void testDeletePrefix_sharedPrefix_subtreeDeleted() {
+        RWayTrie weighted = weighted();
+
+        int removed = weighted.deletePrefix("one");
+
+        assertEquals(2, removed);
+        assertEquals(3, weighted.size());
+        assertFalse(weighted.contains("one"));
+        assertFalse(weighted.contains("oneapple"));
+        assertTrue(weighted.contains("on"));
+        assertNull(weighted.getRoot().getNext('o').getNext('n')
+                .getNext('e'));
+    }
+
+    @Test
+    public void testDeletePrefix_missPrefix_nothingDeleted() {
+        RWayTrie weighted = weighted();
+
+        assertEquals(0, weighted.deletePrefix("onx"));
+        assertEquals(0, weighted.deletePrefix("twenty"));
+        assertEquals(5, weighted.size());
+    }
+
+    @Test
+    public void testDeletePrefix_emptyPrefix_everythingDeleted() {
+        RWayTrie weighted = weighted();
+
+        assertEquals(5, weighted.deletePrefix(""));
+        assertEquals(0, weighted.size());
+        assertTrue(weighted.getRoot().isRedundant());
+    }
+
+    @Test
+    public void testDeletePrefix_heaviestSubtree_maxWeightsUpdated() {
+        RWayTrie weighted = weighted();
+
+        weighted.deletePrefix("onea");
+
+        assertEquals(7, weighted.getRoot().getMaxWeight());
+        assertArrayEquals(new String[] {"two", "only"},
+                toArray(weighted.topK("", 2)));
+    }
+
+    @Test
+    public void testDeletePrefix_onlyWordsBelow_redundantNodesDeleted() {
+        RWayTrie weighted = weighted();
+
+        weighted.deletePrefix("tw");
+
+        assertNull(weighted.getRoot().getNext('t'));
+        assertEquals(4, weighted.size());
+    }
+
+    @Test
+    public void testDeletePrefix_afterBulkBuilds_countsCached()
+            throws IOException {
+        List<Tuple> tuples = Arrays.asList(new Tuple("one", 3),
+                new Tuple("oneapple", 8), new Tuple("only", 5));
+        RWayTrie sorted = RWayTrie.fromSorted(tuples.iterator());
+        RWayTrie all = new RWayTrie();
+        all.addAll(tuples);
+        RWayTrie restored = restore(save(sorted));
+        RWayTrie merged = new RWayTrie();
+        merged.add(new Tuple("one", 1));
+        merged.merge(restore(save(sorted)));
+
+        assertEquals(3, sorted.deletePrefix("o"));
+        assertEquals(3, all.deletePrefix("o"));
+        assertEquals(2, restored.deletePrefix("one"));
+        assertEquals(2, merged.deletePrefix("one"));
+        assertEquals(1, merged.size());
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for removeAll(Iterable<String> words)">
+    @Test
+    public void testRemoveAll_unsortedWords_deleted() {
+        RWayTrie weighted = weighted();
+
+        int removed = weighted.removeAll(
+                Arrays.asList("two", "oneapple", "on"));
+
+        assertEquals(3, removed);
+        assertEquals(2, weighted.size());
+        assertArrayEquals(new String[] {"one", "only"},
+                toArray(weighted.words()));
+        assertEquals(5, weighted.getRoot().getMaxWeight());
+        assertNull(weighted.getRoot().getNext('t'));
+    }
+
+    @Test
+    public void testRemoveAll_missAndRepeatedWords_skipped() {
+        RWayTrie weighted = weighted();
+
+        int removed = weighted.removeAll(Arrays.asList("one", "onex",
+                "one", "", "Only", "x", "o"));
+
+        assertEquals(1, removed);
+        assertEquals(4, weighted.size());
+        assertTrue(weighted.contains("oneapple"));
+        assertTrue(weighted.contains("only"));
+    }
+
+    @Test
+    public void testRemoveAll_emptyWords_nothingChanged() {
+        RWayTrie weighted = weighted();
+
+        assertEquals(0, weighted.removeAll(new ArrayList<String>()));
+        assertEquals(5, weighted.size());
+    }
+
+    @Test
+    public void testRemoveAll_randomWords_sameAsDelete() {
+        Random random = new Random(31);
+        RWayTrie expected = new RWayTrie();
+        RWayTrie actual = new RWayTrie();
+        List<String> removed = new ArrayList<>();
+        for (int i = 0; i < 2000; ++i) {
+            String word = randomWord(random);
+            int weight = random.nextInt(1000);
+            expected.add(new Tuple(word, weight));
+            actual.add(new Tuple(word, weight));
+            if (random.nextBoolean()) {
+                removed.add(randomWord(random));
+            }
+        }
+        int count = 0;
+        for (String word : removed) {
+            if (expected.delete(word)) {
+                count++;
+            }
+        }
+
+        assertEquals(count, actual.removeAll(removed));
+        assertEquals(expected.size(), actual.size());
+        assertArrayEquals(toArray(expected.words()),
+                toArray(actual.words()));
+        assertArrayEquals(toArray(expected.topK("", 20)),
+                toArray(actual.topK("", 20)));
+        assertEquals(actual.size(), actual.deletePrefix(""));
+    }
     //</editor-fold>
 
     //<editor-fold desc="Tests for words()">
@@ -192,6 +391,62 @@ public class RWayTrieTest {
     //</editor-fold>
 
     //<editor-fold desc="Tests for wordsWithPrefix(String pref)">
+    @Test
+    public void testWordsWithPrefix_severalLengths_shorterWordsFirst() {
+        RWayTrie words = new RWayTrie();
+        for (String word : new String[] {"b", "abcde", "ab", "abd", "ba",
+                "abc"}) {
+            words.add(new Tuple(word, word.length()));
+        }
+        String[] expectedResult = {"ab", "abc", "abd", "abcde"};
+
+        String[] actualResult = toArray(words.wordsWithPrefix("a"));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+
+    @Test
+    public void testWordsWithPrefix_emptyPrefix_allWords() {
+        RWayTrie words = new RWayTrie();
+        for (String word : new String[] {"b", "abcde", "ab", "abd", "ba",
+                "abc"}) {
+            words.add(new Tuple(word, word.length()));
+        }
+        String[] expectedResult = {"b", "ab", "ba", "abc", "abd", "abcde"};
+
+        String[] actualResult = toArray(words.wordsWithPrefix(""));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+
+    @Test
+    public void testWordsWithPrefix_differentBranches_spelledFromParents() {
+        RWayTrie words = new RWayTrie();
+        for (String word : new String[] {"abxy", "ab", "abz", "abxz",
+                "ac"}) {
+            words.add(new Tuple(word, word.length()));
+        }
+        String[] expectedResult = {"ab", "abz", "abxy", "abxz"};
+
+        String[] actualResult = toArray(words.wordsWithPrefix("ab"));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+
+    @Test
+    public void testWordsWithPrefix_emptyPrefixLongWords_spelledWhole() {
+        RWayTrie words = new RWayTrie();
+        String longWord = "abcdefghijklmnopqrstuvwxyzabcdefghijklmnop";
+        for (String word : new String[] {longWord, "z", "zy"}) {
+            words.add(new Tuple(word, word.length()));
+        }
+        String[] expectedResult = {"z", "zy", longWord};
+
+        String[] actualResult = toArray(words.wordsWithPrefix(""));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+
     @Test
     public void testWordsWithPrefix_hitsSeveralWords_result() {
         String pref = "one";
@@ -220,6 +475,114 @@ public class RWayTrieTest {
     }
     //</editor-fold>
 
+    //<editor-fold desc="Tests for wordsWithPrefix(String pref, int k)">
+    @Test
+    public void testWordsWithPrefixWithK_kEqualsOne_onlyShortestWords() {
+        String pref = "one";
+        int k = 1;
+        String[] expectedResult = {"one"};
+
+        String[] actualResult = toArray(trie.wordsWithPrefix(pref, k));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+
+    @Test
+    public void testWordsWithPrefixWithK_kEqualsTwo_skipsEmptyLevels() {
+        String pref = "one";
+        int k = 2;
+        String[] expectedResult = {"one", "oneapple"};
+
+        String[] actualResult = toArray(trie.wordsWithPrefix(pref, k));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+
+    @Test
+    public void testWordsWithPrefixWithK_deeperWordsExist_cutAtKthLength() {
+        trie.add(appleMock);
+        String pref = "";
+        int k = 3;
+        String[] expectedResult = {"o", "on", "one"};
+
+        String[] actualResult = toArray(trie.wordsWithPrefix(pref, k));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+
+    @Test
+    public void testWordsWithPrefixWithK_wordsOfSameLength_allReturned() {
+        root.setNext('a', new Node());
+        get("a").setValue(1);
+        String pref = "";
+        int k = 1;
+        String[] expectedResult = {"a", "o"};
+
+        String[] actualResult = toArray(trie.wordsWithPrefix(pref, k));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+
+    @Test
+    public void testWordsWithPrefixWithK_kEqualsZero_noWords() {
+        String pref = "one";
+        int k = 0;
+
+        assertFalse(trie.wordsWithPrefix(pref, k).iterator().hasNext());
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for topK(String pref, int k)">
+    @Test
+    public void testTopK_severalWords_heaviestFirst() {
+        RWayTrie weighted = new RWayTrie();
+        weighted.add(new Tuple("tic", 4));
+        weighted.add(new Tuple("tictac", 9));
+        weighted.add(new Tuple("tac", 7));
+        weighted.add(new Tuple("tictactoe", 1));
+        String[] expectedResult = {"tictac", "tac", "tic"};
+
+        String[] actualResult = toArray(weighted.topK("t", 3));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+
+    @Test
+    public void testTopK_prefix_onlyMatchingWords() {
+        RWayTrie weighted = new RWayTrie();
+        weighted.add(new Tuple("tic", 4));
+        weighted.add(new Tuple("tictac", 9));
+        weighted.add(new Tuple("tac", 7));
+        String[] expectedResult = {"tictac", "tic"};
+
+        String[] actualResult = toArray(weighted.topK("tic", 5));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+
+    @Test
+    public void testTopK_heaviestWordDeleted_nextHeaviest() {
+        RWayTrie weighted = new RWayTrie();
+        weighted.add(new Tuple("apple", 5));
+        weighted.add(new Tuple("apply", 9));
+        weighted.add(new Tuple("applet", 3));
+        weighted.delete("apply");
+        String[] expectedResult = {"apple"};
+
+        String[] actualResult = toArray(weighted.topK("app", 1));
+
+        assertArrayEquals(expectedResult, actualResult);
+        assertEquals(5, weighted.getRoot().getMaxWeight());
+    }
+
+    @Test
+    public void testTopK_doNotHitAnyWord_negativeResultIteratorHasNext() {
+        trie.add(appleMock);
+
+        assertFalse(trie.topK("two", 3).iterator().hasNext());
+    }
+    //</editor-fold>
+
     //<editor-fold desc="Tests for size()">
     @Test
     public void testSize_result() {
@@ -231,6 +594,366 @@ public class RWayTrieTest {
     }
     //</editor-fold>
 
+    //<editor-fold desc="Tests for Node links">
+    @Test
+    public void testNode_leaf_hasNoLinkArray() {
+        int expectedCapacity = 0;
+
+        int actualCapacity = get("oneapple").capacity();
+
+        assertEquals(expectedCapacity, actualCapacity);
+    }
+
+    @Test
+    public void testNode_fiveChildren_grownToNode16() {
+        Node node = new Node();
+        int expectedCapacity = Node.NODE16;
+
+        for (char c = 'a'; c < 'f'; ++c) {
+            node.setNext(c, new Node());
+        }
+        int actualCapacity = node.capacity();
+
+        assertEquals(expectedCapacity, actualCapacity);
+    }
+
+    @Test
+    public void testNode_allChildren_fullLayoutKeepsLinks() {
+        Node node = new Node();
+        Node[] children = new Node[RWayTrie.R];
+
+        for (int i = RWayTrie.R - 1; i >= 0; --i) {
+            children[i] = new Node();
+            node.setNext((char) ('a' + i), children[i]);
+        }
+
+        assertEquals(RWayTrie.R, node.capacity());
+        for (int i = 0; i < RWayTrie.R; ++i) {
+            assertSame(children[i], node.getNext((char) ('a' + i)));
+        }
+    }
+
+    @Test
+    public void testNode_removeChildren_shrunkAndKeepsLinks() {
+        Node node = new Node();
+        Node last = new Node();
+        for (char c = 'a'; c < 'z'; ++c) {
+            node.setNext(c, new Node());
+        }
+        node.setNext('z', last);
+
+        for (char c = 'a'; c < 'y'; ++c) {
+            node.setNext(c, null);
+        }
+
+        assertEquals(Node.NODE4, node.capacity());
+        assertNull(node.getNext('a'));
+        assertNotNull(node.getNext('y'));
+        assertSame(last, node.getNext('z'));
+    }
+
+    @Test
+    public void testNode_removeAllChildren_redundant() {
+        Node node = new Node();
+        node.setNext('q', new Node());
+
+        node.setNext('q', null);
+
+        assertTrue(node.isRedundant());
+        assertEquals(0, node.capacity());
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for fromSorted(Iterator<Tuple> tuples)">
+    @Test
+    public void testFromSorted_noTuples_emptyTrie() {
+        List<Tuple> tuples = Collections.emptyList();
+
+        RWayTrie built = RWayTrie.fromSorted(tuples.iterator());
+
+        assertEquals(0, built.size());
+        assertFalse(built.words().iterator().hasNext());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromSorted_unsortedTuples_exceptionThrown() {
+        List<Tuple> tuples = Arrays.asList(new Tuple("one", 3),
+                new Tuple("apple", 5));
+
+        RWayTrie.fromSorted(tuples.iterator());
+    }
+
+    @Test
+    public void testFromSorted_repeatedWord_firstWeightKept() {
+        List<Tuple> tuples = Arrays.asList(new Tuple("on", 2),
+                new Tuple("one", 3), new Tuple("one", 30));
+
+        RWayTrie built = RWayTrie.fromSorted(tuples.iterator());
+
+        assertEquals(2, built.size());
+        assertEquals(3, built.getRoot().getNext('o').getNext('n')
+                .getNext('e').getValue());
+        assertEquals(3, built.getRoot().getMaxWeight());
+    }
+
+    @Test
+    public void testFromSorted_randomWords_sameAsAdd() {
+        Random random = new Random(23);
+        TreeSet<String> words = new TreeSet<>();
+        for (int i = 0; i < 5000; ++i) {
+            char[] chars = new char[random.nextInt(9)];
+            for (int j = 0; j < chars.length; ++j) {
+                chars[j] = (char) ('a' + random.nextInt(RWayTrie.R));
+            }
+            words.add(new String(chars));
+        }
+        List<Tuple> tuples = new ArrayList<>();
+        RWayTrie expected = new RWayTrie();
+        for (String word : words) {
+            Tuple tuple = new Tuple(word, random.nextInt(100));
+            tuples.add(tuple);
+            expected.add(tuple);
+        }
+
+        RWayTrie built = RWayTrie.fromSorted(tuples.iterator());
+
+        assertEquals(expected.size(), built.size());
+        assertArrayEquals(toArray(expected.words()), toArray(built.words()));
+        assertArrayEquals(toArray(expected.topK("", 50)),
+                toArray(built.topK("", 50)));
+        assertArrayEquals(toArray(expected.topK("q", 10)),
+                toArray(built.topK("q", 10)));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for addAll(Collection<Tuple> tuples)">
+    @Test
+    public void testAddAll_newAndExistingWords_existingWeightsKept() {
+        List<Tuple> tuples = Arrays.asList(new Tuple("one", 30),
+                new Tuple("two", 3), new Tuple("apple", 9),
+                new Tuple("", 1));
+
+        trie.addAll(tuples);
+
+        assertEquals(7, trie.size());
+        assertEquals(3, get("one").getValue());
+        assertTrue(trie.contains("two"));
+        assertTrue(trie.contains(""));
+        assertArrayEquals(new String[]{"apple"}, toArray(trie.topK("", 1)));
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void testAddAll_characterOutsideAlphabet_exceptionThrown() {
+        trie.addAll(Arrays.asList(new Tuple("One", 3)));
+    }
+
+    @Test
+    public void testAddAll_laterCharacterOutsideAlphabet_trieUnchanged() {
+        RWayTrie target = new RWayTrie();
+        target.add(new Tuple("one", 3));
+        List<Tuple> tuples = Arrays.asList(new Tuple("apple", 5),
+                new Tuple("", 1), new Tuple("twO", 4),
+                new Tuple("zebra", 9));
+
+        try {
+            target.addAll(tuples);
+            fail("Expected exception");
+        } catch (ArrayIndexOutOfBoundsException e) {
+            assertEquals(1, target.size());
+        }
+
+        assertArrayEquals(new String[] {"one"}, toArray(target.words()));
+        assertArrayEquals(new String[] {"one"},
+                toArray(target.topK("", 2)));
+        assertEquals(1, target.deletePrefix(""));
+    }
+
+    @Test
+    public void testAddAll_randomWords_sameAsAdd() {
+        Random random = new Random(29);
+        List<Tuple> tuples = new ArrayList<>();
+        RWayTrie expected = new RWayTrie();
+        for (int i = 0; i < 5000; ++i) {
+            char[] chars = new char[1 + random.nextInt(8)];
+            for (int j = 0; j < chars.length; ++j) {
+                chars[j] = (char) ('a' + random.nextInt(RWayTrie.R));
+            }
+            Tuple tuple = new Tuple(new String(chars), random.nextInt(100));
+            tuples.add(tuple);
+            expected.add(tuple);
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        RWayTrie actual = new RWayTrie();
+
+        actual.addAll(tuples, pool);
+        pool.shutdown();
+
+        assertEquals(expected.size(), actual.size());
+        assertArrayEquals(toArray(expected.words()), toArray(actual.words()));
+        assertArrayEquals(toArray(expected.topK("", 50)),
+                toArray(actual.topK("", 50)));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for merge(RWayTrie other)">
+    @Test
+    public void testMerge_disjointWords_union() {
+        RWayTrie other = new RWayTrie();
+        other.add(new Tuple("apple", 5));
+        other.add(new Tuple("two", 3));
+        String[] expectedResult = {"o", "on", "one", "two", "apple",
+                "oneapple"};
+
+        trie.merge(other);
+
+        assertArrayEquals(expectedResult, toArray(trie.words()));
+        assertEquals(6, trie.size());
+    }
+
+    @Test
+    public void testMerge_commonWords_leftValueKept() {
+        RWayTrie other = new RWayTrie();
+        other.add(new Tuple("one", 30));
+        other.add(new Tuple("onea", 9));
+
+        trie.merge(other);
+
+        assertEquals(3, get("one").getValue());
+        assertEquals(9, get("onea").getValue());
+        assertEquals(5, trie.size());
+        assertArrayEquals(new String[]{"onea"}, toArray(trie.topK("", 1)));
+    }
+
+    @Test
+    public void testMerge_maxWeightPolicy_biggerWeightKept() {
+        RWayTrie other = new RWayTrie();
+        other.add(new Tuple("one", 30));
+        other.add(new Tuple("on", 1));
+
+        trie.merge(other, MergePolicy.MAX_WEIGHT);
+
+        assertEquals(30, get("one").getValue());
+        assertEquals(2, get("on").getValue());
+        assertEquals(4, trie.size());
+        assertArrayEquals(new String[]{"one"}, toArray(trie.topK("o", 1)));
+    }
+
+    @Test
+    public void testMerge_sumPolicy_weightsAdded() {
+        RWayTrie other = new RWayTrie();
+        other.add(new Tuple("on", 7));
+        other.add(new Tuple("one", 1));
+
+        trie.merge(other, MergePolicy.SUM);
+
+        assertEquals(9, get("on").getValue());
+        assertEquals(4, get("one").getValue());
+        assertArrayEquals(new String[]{"on"}, toArray(trie.topK("o", 1)));
+    }
+
+    @Test
+    public void testMerge_customPolicy_used() {
+        RWayTrie other = new RWayTrie();
+        other.add(new Tuple("one", 10));
+
+        trie.merge(other, new MergePolicy() {
+            @Override
+            public int resolve(int left, int right) {
+                return right - left;
+            }
+        });
+
+        assertEquals(7, get("one").getValue());
+    }
+
+    @Test
+    public void testMerge_otherLeftEmpty() {
+        RWayTrie other = new RWayTrie();
+        other.add(new Tuple("two", 3));
+
+        trie.merge(other);
+        other.add(new Tuple("twice", 5));
+
+        assertEquals(1, other.size());
+        assertFalse(other.contains("two"));
+        assertFalse(trie.contains("twice"));
+    }
+
+    @Test
+    public void testMerge_itself_nothingChanged() {
+        trie.merge(trie);
+
+        assertEquals(4, trie.size());
+        assertTrue(trie.contains("oneapple"));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for save and restore">
+    @Test
+    public void testSaveRestore_sameWordsAndSize() throws IOException {
+        String[] expectedWords = toArray(trie.words());
+
+        RWayTrie restored = restore(save(trie));
+
+        assertEquals(trie.size(), restored.size());
+        assertArrayEquals(expectedWords, toArray(restored.words()));
+        assertEquals(3, restored.getRoot().getNext('o').getNext('n')
+                .getNext('e').getValue());
+    }
+
+    @Test
+    public void testSaveRestore_emptyTrie_emptyTrie() throws IOException {
+        RWayTrie restored = restore(save(new RWayTrie()));
+
+        assertEquals(0, restored.size());
+        assertFalse(restored.words().iterator().hasNext());
+    }
+
+    @Test
+    public void testSaveRestore_fileChannel_sameTopKAndLayout()
+            throws IOException {
+        RWayTrie source = new RWayTrie();
+        for (char c = 'a'; c <= 'z'; ++c) {
+            source.add(new Tuple("x" + c, c));
+            if (c < 'j') {
+                source.add(new Tuple("y" + c, c));
+            }
+        }
+        File file = folder.newFile();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.WRITE)) {
+            source.save(channel);
+        }
+        RWayTrie restored;
+        try (FileChannel channel = FileChannel.open(file.toPath())) {
+            restored = RWayTrie.restore(channel);
+        }
+
+        assertArrayEquals(toArray(source.topK("", 5)),
+                toArray(restored.topK("", 5)));
+        assertEquals(RWayTrie.R, restored.getRoot().getNext('x').capacity());
+        assertEquals(Node.NODE16,
+                restored.getRoot().getNext('y').capacity());
+        assertEquals(Node.NODE4, restored.getRoot().capacity());
+        restored.add(new Tuple("yz", 1));
+        assertTrue(restored.contains("yz"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testRestore_notSnapshot_exceptionThrown() throws IOException {
+        restore(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14,
+                15, 16});
+    }
+
+    @Test(expected = EOFException.class)
+    public void testRestore_truncated_exceptionThrown() throws IOException {
+        byte[] bytes = save(trie);
+
+        restore(Arrays.copyOf(bytes, bytes.length - 1));
+    }
+    //</editor-fold>
+
     //<editor-fold desc="Some additional methods">
     private Node get(String key) {
         Node current = root;
@@ -242,5 +965,35 @@ public class RWayTrieTest {
         }
         return current;
     }
+
+    private RWayTrie weighted() {
+        RWayTrie weighted = new RWayTrie();
+        weighted.add(new Tuple("on", 2));
+        weighted.add(new Tuple("one", 3));
+        weighted.add(new Tuple("oneapple", 8));
+        weighted.add(new Tuple("only", 5));
+        weighted.add(new Tuple("two", 7));
+        return weighted;
+    }
+
+    private String randomWord(Random random) {
+        int length = 1 + random.nextInt(4);
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; ++i) {
+            word.append((char) ('a' + random.nextInt(3)));
+        }
+        return word.toString();
+    }
+
+    private byte[] save(RWayTrie source) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        source.save(Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    private RWayTrie restore(byte[] bytes) throws IOException {
+        return RWayTrie.restore(
+                Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
     //</editor-fold>
 }
\ No newline at end of file
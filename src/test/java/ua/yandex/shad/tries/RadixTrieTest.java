@@ -0,0 +1,286 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.tries;
+
+import static org.junit.Assert.*;
+import static ua.yandex.shad.tries.RadixTrie.Node;
+import static ua.yandex.shad.utils.StringIterableUtils.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ua.yandex.shad.collections.Tuple;
+
+public class RadixTrieTest {
+
+    //<editor-fold desc="Set up tests">
+    private RadixTrie trie;
+    private Node root;
+
+    @Before
+    public void setUp() {
+        trie = new RadixTrie();
+        root = trie.getRoot();
+        trie.add(new Tuple("o", 1));
+        trie.add(new Tuple("on", 2));
+        trie.add(new Tuple("one", 3));
+        trie.add(new Tuple("oneapple", 5));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for add(Tuple t)">
+    @Test
+    public void testAdd_existingWord_sizeDoNotChanged() {
+        int expectedSize = 4;
+
+        trie.add(new Tuple("one", 7));
+        int actualSize = trie.size();
+
+        assertEquals(expectedSize, actualSize);
+    }
+
+    @Test
+    public void testAdd_longWord_singleCompressedEdge() {
+        String expectedLabel = "apple";
+
+        trie.add(new Tuple("oneapple", 5));
+        Node one = get("one");
+        String actualLabel = one.getChildren()[0].label();
+
+        assertEquals(expectedLabel, actualLabel);
+        assertEquals(1, one.getChildren().length);
+    }
+
+    @Test
+    public void testAdd_wordInsideEdge_edgeSplit() {
+        trie.add(new Tuple("oneap", 4));
+
+        Node split = get("oneap");
+
+        assertEquals("ap", split.label());
+        assertEquals("ple", split.getChildren()[0].label());
+        assertEquals(4, split.getValue());
+        assertEquals(5, split.getMaxWeight());
+    }
+
+    @Test
+    public void testAdd_divergingWord_edgeSplitWithTwoChildren() {
+        trie.add(new Tuple("oneday", 6));
+
+        Node one = get("one");
+
+        assertEquals(2, one.getChildren().length);
+        assertEquals("apple", one.getChildren()[0].label());
+        assertEquals("day", one.getChildren()[1].label());
+    }
+
+    @Test
+    public void testAdd_newLeaf_labelKeepsOnlySuffix() {
+        int expectedCapacity = 3;
+
+        trie.add(new Tuple("oneday", 6));
+        int actualCapacity = get("oneday").labelCapacity();
+
+        assertEquals(expectedCapacity, actualCapacity);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for contains(String word)">
+    @Test
+    public void testContains_hitWord_positiveResult() {
+        assertTrue(trie.contains("one"));
+        assertTrue(trie.contains("oneapple"));
+    }
+
+    @Test
+    public void testContains_wordEndsInsideEdge_negativeResult() {
+        assertFalse(trie.contains("oneapp"));
+    }
+
+    @Test
+    public void testContains_missWord_negativeResult() {
+        assertFalse(trie.contains("two"));
+        assertFalse(trie.contains("oneapples"));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for delete(String word)">
+    @Test
+    public void testDelete_hitWord_sizeDecreased() {
+        int expectedSize = 3;
+
+        assertTrue(trie.delete("oneapple"));
+        int actualSize = trie.size();
+
+        assertEquals(expectedSize, actualSize);
+        assertFalse(trie.contains("oneapple"));
+    }
+
+    @Test
+    public void testDelete_missWord_negativeResult() {
+        assertFalse(trie.delete("oneapp"));
+        assertFalse(trie.delete("two"));
+        assertEquals(4, trie.size());
+    }
+
+    @Test
+    public void testDelete_wordWithSingleChild_edgesMerged() {
+        trie.delete("one");
+
+        Node merged = get("on").getChildren()[0];
+
+        assertEquals("eapple", merged.label());
+        assertTrue(trie.contains("oneapple"));
+    }
+
+    @Test
+    public void testDelete_splitWordDeleted_edgesMergedBack() {
+        trie.add(new Tuple("oneap", 4));
+
+        trie.delete("oneap");
+
+        assertEquals("apple", get("one").getChildren()[0].label());
+    }
+
+    @Test
+    public void testDelete_leaf_maxWeightUpdated() {
+        int expectedMaxWeight = 3;
+
+        trie.delete("oneapple");
+        int actualMaxWeight = root.getMaxWeight();
+
+        assertEquals(expectedMaxWeight, actualMaxWeight);
+    }
+
+    @Test
+    public void testDelete_deleteAllWords_rootIsEmpty() {
+        trie.delete("o");
+        trie.delete("on");
+        trie.delete("one");
+        trie.delete("oneapple");
+
+        assertEquals(0, root.getChildren().length);
+        assertEquals(0, trie.size());
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for words()">
+    @Test
+    public void testWords_result() {
+        trie.add(new Tuple("apple", 5));
+        String[] expectedResult = {"o", "on", "one", "apple", "oneapple"};
+
+        String[] actualResult = toArray(trie.words());
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for wordsWithPrefix(String pref)">
+    @Test
+    public void testWordsWithPrefix_prefixEndsInsideEdge_result() {
+        String pref = "oneapp";
+        String[] expectedResult = {"oneapple"};
+
+        String[] actualResult = toArray(trie.wordsWithPrefix(pref));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+
+    @Test
+    public void testWordsWithPrefix_doNotHitAnyWord_negativeResultIteratorHasNext() {
+        assertFalse(trie.wordsWithPrefix("onex").iterator().hasNext());
+        assertFalse(trie.wordsWithPrefix("two").iterator().hasNext());
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for wordsWithPrefix(String pref, int k)">
+    @Test
+    public void testWordsWithPrefixWithK_kEqualsTwo_skipsEmptyLevels() {
+        String[] expectedResult = {"one", "oneapple"};
+
+        String[] actualResult = toArray(trie.wordsWithPrefix("one", 2));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for topK(String pref, int k)">
+    @Test
+    public void testTopK_result() {
+        String[] expectedResult = {"oneapple", "one"};
+
+        String[] actualResult = toArray(trie.topK("on", 2));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests against RWayTrie">
+    @Test
+    public void testRandomAddDelete_sameWordsAsRWayTrie() {
+        Random random = new Random(13);
+        RadixTrie radix = new RadixTrie();
+        RWayTrie rway = new RWayTrie();
+        for (int i = 0; i < 2000; ++i) {
+            String word = randomWord(random);
+            if (random.nextInt(3) == 0) {
+                assertEquals(rway.delete(word), radix.delete(word));
+            } else {
+                radix.add(new Tuple(word, word.length()));
+                rway.add(new Tuple(word, word.length()));
+            }
+        }
+
+        assertEquals(rway.size(), radix.size());
+        assertArrayEquals(toArray(rway.words()), toArray(radix.words()));
+        assertArrayEquals(toArray(rway.topK("a", 10)),
+                toArray(radix.topK("a", 10)));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Some additional methods">
+    private Node get(String key) {
+        Node current = root;
+        int i = 0;
+        while (i < key.length()) {
+            int pos = current.indexOf(key.charAt(i));
+            current = current.getChildren()[pos];
+            i += current.length();
+        }
+        return current;
+    }
+
+    private String randomWord(Random random) {
+        char[] chars = new char[1 + random.nextInt(6)];
+        for (int i = 0; i < chars.length; ++i) {
+            chars[i] = (char) ('a' + random.nextInt(4));
+        }
+        return new String(chars);
+    }
+    //</editor-fold>
+}
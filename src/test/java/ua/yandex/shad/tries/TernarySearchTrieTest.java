@@ -0,0 +1,257 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Ruslan Sakevych
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package ua.yandex.shad.tries;
+
+import static org.junit.Assert.*;
+import static ua.yandex.shad.tries.TernarySearchTrie.Node;
+import static ua.yandex.shad.utils.StringIterableUtils.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ua.yandex.shad.collections.Tuple;
+
+public class TernarySearchTrieTest {
+
+    //<editor-fold desc="Set up tests">
+    private TernarySearchTrie trie;
+
+    @Before
+    public void setUp() {
+        trie = new TernarySearchTrie();
+        trie.add(new Tuple("o", 1));
+        trie.add(new Tuple("on", 2));
+        trie.add(new Tuple("one", 3));
+        trie.add(new Tuple("oneapple", 5));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for add(Tuple t)">
+    @Test
+    public void testAdd_existingWord_sizeDoNotChanged() {
+        int expectedSize = 4;
+
+        trie.add(new Tuple("one", 7));
+        int actualSize = trie.size();
+
+        assertEquals(expectedSize, actualSize);
+    }
+
+    @Test
+    public void testAdd_charactersOutsideLatinAlphabet_added() {
+        trie.add(new Tuple("Привіт", 6));
+        trie.add(new Tuple("ONE-2", 5));
+
+        assertTrue(trie.contains("Привіт"));
+        assertTrue(trie.contains("ONE-2"));
+        assertFalse(trie.contains("Привід"));
+        assertEquals(6, trie.size());
+    }
+
+    @Test
+    public void testAdd_emptyWord_storedInHead() {
+        trie.add(new Tuple("", 9));
+
+        assertTrue(trie.contains(""));
+        assertEquals(9, trie.getHead().getMaxWeight());
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for contains(String word)">
+    @Test
+    public void testContains_hitWord_positiveResult() {
+        assertTrue(trie.contains("one"));
+    }
+
+    @Test
+    public void testContains_prefixOfWord_negativeResult() {
+        assertFalse(trie.contains("onea"));
+        assertFalse(trie.contains(""));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for delete(String word)">
+    @Test
+    public void testDelete_hitWord_sizeDecreased() {
+        int expectedSize = 3;
+
+        assertTrue(trie.delete("oneapple"));
+        int actualSize = trie.size();
+
+        assertEquals(expectedSize, actualSize);
+    }
+
+    @Test
+    public void testDelete_missWord_negativeResult() {
+        assertFalse(trie.delete("oneapp"));
+        assertFalse(trie.delete("two"));
+        assertEquals(4, trie.size());
+    }
+
+    @Test
+    public void testDelete_hitWord_deletedRedundantNodes() {
+        trie.delete("oneapple");
+
+        Node one = trie.getHead().getEq().getEq().getEq();
+
+        assertEquals('e', one.getChar());
+        assertNull(one.getEq());
+        assertEquals(3, trie.getHead().getMaxWeight());
+    }
+
+    @Test
+    public void testDelete_nodeWithSiblings_siblingsKept() {
+        trie.add(new Tuple("a", 1));
+        trie.add(new Tuple("z", 1));
+
+        trie.delete("o");
+        trie.delete("on");
+        trie.delete("one");
+        trie.delete("oneapple");
+
+        assertArrayEquals(new String[] {"a", "z"}, toArray(trie.words()));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for words()">
+    @Test
+    public void testWords_result() {
+        trie.add(new Tuple("apple", 5));
+        String[] expectedResult = {"o", "on", "one", "apple", "oneapple"};
+
+        String[] actualResult = toArray(trie.words());
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for wordsWithPrefix(String pref)">
+    @Test
+    public void testWordsWithPrefix_unicodeWords_result() {
+        trie.add(new Tuple("яблуко", 6));
+        trie.add(new Tuple("ябл", 3));
+        trie.add(new Tuple("ява", 3));
+        String[] expectedResult = {"ябл", "ява", "яблуко"};
+
+        String[] actualResult = toArray(trie.wordsWithPrefix("я"));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+
+    @Test
+    public void testWordsWithPrefix_doNotHitAnyWord_negativeResultIteratorHasNext() {
+        assertFalse(trie.wordsWithPrefix("two").iterator().hasNext());
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for wordsWithPrefix(String pref, int k)">
+    @Test
+    public void testWordsWithPrefixWithK_kEqualsTwo_skipsEmptyLevels() {
+        String[] expectedResult = {"one", "oneapple"};
+
+        String[] actualResult = toArray(trie.wordsWithPrefix("one", 2));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for topK(String pref, int k)">
+    @Test
+    public void testTopK_result() {
+        String[] expectedResult = {"oneapple", "one"};
+
+        String[] actualResult = toArray(trie.topK("on", 2));
+
+        assertArrayEquals(expectedResult, actualResult);
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests for sorted input">
+    @Test
+    public void testAddDelete_sortedLargeAlphabet_noStackOverflow() {
+        TernarySearchTrie sorted = new TernarySearchTrie();
+        int count = 10000;
+        for (int i = 0; i < count; ++i) {
+            sorted.add(new Tuple(largeAlphabetWord(i), i));
+        }
+        for (int i = count - 1; i >= 0; --i) {
+            sorted.add(new Tuple(largeAlphabetWord(i) + "z", 1));
+        }
+
+        assertEquals(2 * count, sorted.size());
+        assertEquals(2 * count, toArray(sorted.words()).length);
+        assertArrayEquals(new String[] {largeAlphabetWord(count - 1)},
+                toArray(sorted.topK("", 1)));
+        for (int i = 0; i < count; ++i) {
+            assertTrue(sorted.delete(largeAlphabetWord(i)));
+        }
+        assertEquals(count, sorted.size());
+        assertArrayEquals(new String[] {largeAlphabetWord(0) + "z"},
+                toArray(sorted.topK(largeAlphabetWord(0), 1)));
+        assertFalse(sorted.contains(largeAlphabetWord(1)));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Tests against RadixTrie">
+    @Test
+    public void testRandomAddDelete_sameWordsAsRadixTrie() {
+        Random random = new Random(17);
+        TernarySearchTrie tst = new TernarySearchTrie();
+        RadixTrie radix = new RadixTrie();
+        for (int i = 0; i < 2000; ++i) {
+            String word = randomWord(random);
+            if (random.nextInt(3) == 0) {
+                assertEquals(radix.delete(word), tst.delete(word));
+            } else {
+                int weight = random.nextInt(100);
+                radix.add(new Tuple(word, weight));
+                tst.add(new Tuple(word, weight));
+            }
+        }
+
+        assertEquals(radix.size(), tst.size());
+        assertArrayEquals(toArray(radix.words()), toArray(tst.words()));
+        assertArrayEquals(toArray(radix.topK("", 20)),
+                toArray(tst.topK("", 20)));
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="Some additional methods">
+    private String largeAlphabetWord(int i) {
+        return String.valueOf((char) ('\u0100' + i));
+    }
+
+    private String randomWord(Random random) {
+        String alphabet = "abcЯЮ";
+        char[] chars = new char[1 + random.nextInt(6)];
+        for (int i = 0; i < chars.length; ++i) {
+            chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+        }
+        return new String(chars);
+    }
+    //</editor-fold>
+}